@@ -0,0 +1,76 @@
+package com.habitscanner.habitscanner.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Caches in front of the database.
+ *
+ * <ul>
+ *   <li>Spring caches of query results. Puts and evictions made inside a transaction
+ *       are applied once it commits, so a rolled back write never evicts and a reader
+ *       never caches rows that are not committed yet. Hits and misses are published as
+ *       {@code cache.gets} by Spring Boot's cache metrics.</li>
+ *   <li>Hibernate's second-level cache, holding {@code Habit} entities by id in the
+ *       {@value #HABITS_REGION} region.</li>
+ * </ul>
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Active habits of a user, keyed by user id. */
+    public static final String ACTIVE_HABITS = "activeHabits";
+
+    /** Second-level cache region of {@code Habit}. */
+    public static final String HABITS_REGION = "habits";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${habitscanner.cache.active-habits.max-size:10000}") long activeHabitsMaxSize,
+                                     @Value("${habitscanner.cache.active-habits.ttl:PT10M}") Duration activeHabitsTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the caches registered here; a misspelled cache name fails instead of
+        // creating an unbounded cache
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(ACTIVE_HABITS, Caffeine.newBuilder()
+                .maximumSize(activeHabitsMaxSize)
+                .expireAfterWrite(activeHabitsTtl)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager secondLevelCacheManager(@Value("${habitscanner.cache.habits.max-size:10000}") long habitsMaxSize) {
+        // A manager of its own rather than the provider's JVM-wide default, which every
+        // application context in the JVM would share and the first to close would close
+        javax.cache.CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("habitscanner:" + UUID.randomUUID()), getClass().getClassLoader());
+        CaffeineConfiguration<Object, Object> habits = new CaffeineConfiguration<>();
+        habits.setMaximumSize(OptionalLong.of(habitsMaxSize));
+        cacheManager.createCache(HABITS_REGION, habits);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(javax.cache.CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+}
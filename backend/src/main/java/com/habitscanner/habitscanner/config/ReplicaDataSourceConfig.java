@@ -0,0 +1,88 @@
+package com.habitscanner.habitscanner.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to a replica database and everything else to the
+ * primary. Active when {@code habitscanner.datasource.replica.url} is set; without it
+ * Spring Boot's single datasource is used.
+ *
+ * <p>The replica is expected to be a copy of the primary kept current by the database's
+ * own replication, so reads may briefly lag behind the latest writes. Methods that read
+ * before they write run in read-write transactions and see the primary, as do reads run
+ * through {@link ReplicaReads#onPrimary}.
+ */
+@Configuration
+@ConditionalOnProperty("habitscanner.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("habitscanner.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(Environment environment) {
+        // Bound by hand rather than as a second DataSourceProperties bean, which would
+        // make Spring Boot's own one ambiguous
+        DataSourceProperties properties = Binder.get(environment)
+                .bind("habitscanner.datasource.replica", DataSourceProperties.class)
+                .get();
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(REPLICA);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * The datasource JPA uses. The lazy proxy only takes a physical connection at the
+     * first statement, once the transaction's read-only flag is known; the transaction
+     * manager opens its connection before that flag is set.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaReads replicaReads) {
+        ReadOnlyRoutingDataSource routingDataSource = new ReadOnlyRoutingDataSource(replicaReads);
+        routingDataSource.setTargetDataSources(Map.of(PRIMARY, primaryDataSource, REPLICA, replicaDataSource));
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    static final class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+        private final ReplicaReads replicaReads;
+
+        ReadOnlyRoutingDataSource(ReplicaReads replicaReads) {
+            this.replicaReads = replicaReads;
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return replicaReads.isCurrentTransactionOnReplica() ? REPLICA : PRIMARY;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.habitscanner.habitscanner.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Tells caches whether the current transaction reads from the replica configured in
+ * {@link ReplicaDataSourceConfig}. What such a transaction reads may not include the
+ * latest writes yet, so it must not be cached.
+ *
+ * <p>Reads whose result is tagged with the user's current data version run through
+ * {@link #onPrimary}, since the replica may not have the writes that version stands for.
+ */
+@Component
+public class ReplicaReads {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = ThreadLocal.withInitial(() -> false);
+
+    private final boolean replicaConfigured;
+
+    public ReplicaReads(@Value("${habitscanner.datasource.replica.url:}") String replicaUrl) {
+        this.replicaConfigured = !replicaUrl.isEmpty();
+    }
+
+    public boolean isCurrentTransactionOnReplica() {
+        return replicaConfigured && TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !PRIMARY_ONLY.get();
+    }
+
+    /**
+     * Runs the read with its read-only transactions sent to the primary.
+     */
+    public <T> T onPrimary(Supplier<T> read) {
+        if (PRIMARY_ONLY.get()) {
+            return read.get();
+        }
+        PRIMARY_ONLY.set(true);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_ONLY.remove();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.habitscanner.habitscanner.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Counts the SQL statements of each controller invocation, records them per handler
+ * as {@code habitscanner.request.statements} and logs requests over the configured
+ * budget. The count is also left in the {@link #STATEMENT_COUNT_ATTRIBUTE} request
+ * attribute.
+ *
+ * <p>Work a handler hands to another thread, such as a streamed export, is not counted.
+ */
+@Component
+public class StatementBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String STATEMENT_COUNT_ATTRIBUTE = "com.habitscanner.habitscanner.statementCount";
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementBudgetInterceptor.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${habitscanner.sql.statement-budget:20}")
+    private int statementBudget;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            StatementCountingInspector.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The async dispatch completes on another thread; keep what this one issued so far
+        request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, StatementCountingInspector.stop());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+
+        int statements = StatementCountingInspector.stop();
+        if (request.getAttribute(STATEMENT_COUNT_ATTRIBUTE) instanceof Integer beforeAsyncDispatch) {
+            statements += beforeAsyncDispatch;
+        }
+        request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, statements);
+
+        String handlerName = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        DistributionSummary.builder("habitscanner.request.statements")
+                .description("SQL statements issued per controller invocation")
+                .tag("handler", handlerName)
+                .register(meterRegistry)
+                .record(statements);
+
+        if (statements > statementBudget) {
+            logger.warn("{} {} ({}) issued {} SQL statements, budget is {}",
+                    request.getMethod(), request.getRequestURI(), handlerName, statements, statementBudget);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.habitscanner.habitscanner.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between
+ * {@link #start()} and {@link #stop()}. Registered through
+ * {@code hibernate.session_factory.statement_inspector}, so Hibernate creates it and
+ * the count lives in a thread-local rather than in a bean.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> counter = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = counter.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    /**
+     * Starts counting on the current thread from zero.
+     */
+    public static void start() {
+        counter.set(new int[1]);
+    }
+
+    /**
+     * @return statements counted since {@link #start()}, 0 if counting was not started
+     */
+    public static int count() {
+        int[] count = counter.get();
+        return count != null ? count[0] : 0;
+    }
+
+    /**
+     * Stops counting on the current thread.
+     *
+     * @return statements counted since {@link #start()}, 0 if counting was not started
+     */
+    public static int stop() {
+        int count = count();
+        counter.remove();
+        return count;
+    }
+}
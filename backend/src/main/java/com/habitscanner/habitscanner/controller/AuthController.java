@@ -1,6 +1,6 @@
 package com.habitscanner.habitscanner.controller;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.habitscanner.habitscanner.service.TokenIntrospection;
 import com.habitscanner.habitscanner.service.TokenValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -25,24 +25,21 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("error", "Token is required"));
         }
         
-        if (!tokenValidationService.isValidGoogleToken(token)) {
+        TokenIntrospection introspection = tokenValidationService.introspect(token);
+        if (!introspection.isValid()) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
         
-        JsonNode userInfo = tokenValidationService.getUserInfoFromToken(token);
-        if (userInfo == null) {
-            return ResponseEntity.status(401).body(Map.of("error", "Could not retrieve user info"));
-        }
+        String email = introspection.getEmail() != null ? introspection.getEmail() : "";
         
         Map<String, Object> response = new HashMap<>();
         response.put("valid", true);
         response.put("user", Map.of(
-            "id", userInfo.has("user_id") ? userInfo.get("user_id").asText() : "",
-            "email", userInfo.has("email") ? userInfo.get("email").asText() : "",
-            "name", userInfo.has("email") ? userInfo.get("email").asText() : ""
+            "id", introspection.getUserId(),
+            "email", email,
+            "name", email
         ));
         
         return ResponseEntity.ok(response);
     }
 }
-
@@ -0,0 +1,40 @@
+package com.habitscanner.habitscanner.controller;
+
+import com.habitscanner.habitscanner.config.ReplicaReads;
+import com.habitscanner.habitscanner.service.UserDataVersions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Function;
+
+@Component
+public class ConditionalReads {
+    
+    @Autowired
+    private UserDataVersions userDataVersions;
+    
+    @Autowired
+    private ReplicaReads replicaReads;
+    
+    // Reads carry the user's data version as ETag; clients may keep them but must
+    // revalidate, and a matching If-None-Match is answered with 304 (the null return)
+    // before any query runs
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    
+    // Runs the read only if the client's copy is stale, handing it a 200 builder that
+    // already carries the ETag and cache headers. The read goes to the primary: a lagging
+    // replica could return data from before the writes the ETag already accounts for,
+    // and every revalidation would then keep the client on it
+    public <T> ResponseEntity<T> read(String userId, WebRequest request,
+                                      Function<ResponseEntity.BodyBuilder, ResponseEntity<T>> read) {
+        String etag = userDataVersions.etag(userId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
+        return replicaReads.onPrimary(() -> read.apply(ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.habitscanner.habitscanner.controller;
+
+import com.habitscanner.habitscanner.model.HistoryFormat;
+import com.habitscanner.habitscanner.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+    
+    @Autowired
+    private ExportService exportService;
+    
+    private String getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+    
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        Optional<HistoryFormat> historyFormat = HistoryFormat.parse(format);
+        if (historyFormat.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // The body is written after this method returns, on another thread
+        StreamingResponseBody body = out -> exportService.export(userId, historyFormat.get(), out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(historyFormat.get().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("habitscanner-export." + historyFormat.get().getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,36 +21,40 @@ public class HabitController {
     @Autowired
     private HabitService habitService;
     
+    @Autowired
+    private ConditionalReads conditionalReads;
+    
     private String getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return authentication != null ? authentication.getName() : null;
     }
     
     @GetMapping
-    public ResponseEntity<List<HabitDTO>> getAllHabits() {
+    public ResponseEntity<List<HabitDTO>> getAllHabits(WebRequest request) {
         String userId = getCurrentUserId();
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        List<HabitDTO> habits = habitService.getAllHabitsByUserId(userId);
-        return ResponseEntity.ok(habits);
+        return conditionalReads.read(userId, request, ok -> ok.body(habitService.getAllHabitsByUserId(userId)));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<HabitDTO> getHabitById(@PathVariable Long id) {
+    public ResponseEntity<HabitDTO> getHabitById(@PathVariable Long id, WebRequest request) {
         String userId = getCurrentUserId();
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        Optional<HabitDTO> habit = habitService.getHabitById(id, userId);
-        
-        if (habit.isPresent()) {
-            return ResponseEntity.ok(habit.get());
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+        return conditionalReads.read(userId, request, ok -> {
+            Optional<HabitDTO> habit = habitService.getHabitById(id, userId);
+            
+            if (habit.isPresent()) {
+                return ok.body(habit.get());
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        });
     }
     
     @PostMapping
@@ -98,14 +103,13 @@ public class HabitController {
     }
     
     @GetMapping("/count")
-    public ResponseEntity<Long> getActiveHabitsCount() {
+    public ResponseEntity<Long> getActiveHabitsCount(WebRequest request) {
         String userId = getCurrentUserId();
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        Long count = habitService.getActiveHabitsCount(userId);
-        return ResponseEntity.ok(count);
+        return conditionalReads.read(userId, request, ok -> ok.body(habitService.getActiveHabitsCount(userId)));
     }
 }
 
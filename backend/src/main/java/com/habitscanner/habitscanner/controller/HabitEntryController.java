@@ -1,6 +1,7 @@
 package com.habitscanner.habitscanner.controller;
 
 import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.dto.HabitEntryPageDTO;
 import com.habitscanner.habitscanner.service.HabitEntryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -9,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -22,45 +24,59 @@ public class HabitEntryController {
     @Autowired
     private HabitEntryService habitEntryService;
     
+    @Autowired
+    private ConditionalReads conditionalReads;
+    
+    // Paged listings return the entries as the body and the cursor of the next page,
+    // if there is one, in this header
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private String getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return authentication != null ? authentication.getName() : null;
     }
     
     @GetMapping("/habit/{habitId}")
-    public ResponseEntity<List<HabitEntryDTO>> getEntriesByHabitId(@PathVariable Long habitId) {
+    public ResponseEntity<List<HabitEntryDTO>> getEntriesByHabitId(
+            @PathVariable Long habitId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
         String userId = getCurrentUserId();
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        List<HabitEntryDTO> entries = habitEntryService.getEntriesByHabitId(habitId, userId);
-        return ResponseEntity.ok(entries);
+        return conditionalReads.read(userId, request,
+                ok -> toResponse(habitEntryService.getEntriesByHabitId(habitId, userId, cursor, limit), ok));
     }
     
     @GetMapping("/date/{date}")
     public ResponseEntity<List<HabitEntryDTO>> getEntriesByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest request) {
         String userId = getCurrentUserId();
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        List<HabitEntryDTO> entries = habitEntryService.getEntriesByUserIdAndDate(userId, date);
-        return ResponseEntity.ok(entries);
+        return conditionalReads.read(userId, request, ok -> ok.body(habitEntryService.getEntriesByUserIdAndDate(userId, date)));
     }
     
     @GetMapping("/range")
     public ResponseEntity<List<HabitEntryDTO>> getEntriesByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
         String userId = getCurrentUserId();
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        List<HabitEntryDTO> entries = habitEntryService.getEntriesByUserIdAndDateRange(userId, startDate, endDate);
-        return ResponseEntity.ok(entries);
+        return conditionalReads.read(userId, request,
+                ok -> toResponse(habitEntryService.getEntriesByUserIdAndDateRange(userId, startDate, endDate, cursor, limit), ok));
     }
     
     @PostMapping("/habit/{habitId}")
@@ -81,6 +97,22 @@ public class HabitEntryController {
         }
     }
     
+    @PostMapping("/batch")
+    public ResponseEntity<List<HabitEntryDTO>> createOrUpdateEntries(@RequestBody List<HabitEntryDTO> entryDTOs) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        Optional<List<HabitEntryDTO>> entries = habitEntryService.createOrUpdateEntries(entryDTOs, userId);
+        
+        if (entries.isPresent()) {
+            return ResponseEntity.ok(entries.get());
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @DeleteMapping("/{entryId}")
     public ResponseEntity<Void> deleteEntry(@PathVariable Long entryId) {
         String userId = getCurrentUserId();
@@ -100,14 +132,25 @@ public class HabitEntryController {
     @GetMapping("/completed/count")
     public ResponseEntity<Long> getCompletedEntriesCount(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest request) {
         String userId = getCurrentUserId();
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        Long count = habitEntryService.getCompletedEntriesCount(userId, startDate, endDate);
-        return ResponseEntity.ok(count);
+        return conditionalReads.read(userId, request,
+                ok -> ok.body(habitEntryService.getCompletedEntriesCount(userId, startDate, endDate)));
+    }
+    
+    private ResponseEntity<List<HabitEntryDTO>> toResponse(Optional<HabitEntryPageDTO> page, ResponseEntity.BodyBuilder ok) {
+        if (page.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        if (page.get().getNextCursor() != null) {
+            ok.header(NEXT_CURSOR_HEADER, page.get().getNextCursor());
+        }
+        return ok.body(page.get().getEntries());
     }
 }
-
@@ -0,0 +1,97 @@
+package com.habitscanner.habitscanner.controller;
+
+import com.habitscanner.habitscanner.dto.ImportJobDTO;
+import com.habitscanner.habitscanner.model.HistoryFormat;
+import com.habitscanner.habitscanner.model.ImportStatus;
+import com.habitscanner.habitscanner.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/import")
+@CrossOrigin(origins = "*")
+public class ImportController {
+    
+    @Autowired
+    private ImportService importService;
+    
+    private String getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+    
+    /**
+     * Creates an import job. The file is then uploaded to it with
+     * {@link #importHistory}, and its progress is read from the returned location.
+     */
+    @PostMapping
+    public ResponseEntity<ImportJobDTO> createJob(@RequestParam(defaultValue = "ndjson") String format) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        Optional<HistoryFormat> historyFormat = HistoryFormat.parse(format);
+        if (historyFormat.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        ImportJobDTO job = importService.createJob(userId, historyFormat.get());
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQuery(null)
+                .path("/{jobId}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.created(location).body(job);
+    }
+    
+    /**
+     * Imports the request body into the job as it is uploaded. If the upload fails or
+     * drops, uploading the same file again continues after the rows already committed.
+     * While another upload to the job is running, the job is returned with 409.
+     */
+    @PutMapping("/{jobId}")
+    public ResponseEntity<ImportJobDTO> importHistory(@PathVariable Long jobId, InputStream body) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        Optional<ImportJobDTO> job = importService.importHistory(userId, jobId, body);
+        
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        } else if (job.get().getStatus() == ImportStatus.RUNNING) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job.get());
+        } else if (job.get().getStatus() == ImportStatus.FAILED) {
+            return ResponseEntity.badRequest().body(job.get());
+        } else {
+            return ResponseEntity.ok(job.get());
+        }
+    }
+    
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobDTO> getJob(@PathVariable Long jobId) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        Optional<ImportJobDTO> job = importService.getJob(jobId, userId);
+        
+        if (job.isPresent()) {
+            return ResponseEntity.ok(job.get());
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.habitscanner.habitscanner.controller;
+
+import com.habitscanner.habitscanner.dto.StatsDTO;
+import com.habitscanner.habitscanner.service.StatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "*")
+public class StatsController {
+    
+    @Autowired
+    private StatsService statsService;
+    
+    private String getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+    
+    @GetMapping
+    public ResponseEntity<StatsDTO> getStats(
+            @RequestParam(required = false) String period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        if (startDate != null && endDate != null) {
+            if (startDate.isAfter(endDate)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(statsService.getStats(userId, startDate, endDate));
+        }
+        
+        Optional<StatsDTO> stats = statsService.getStatsForPeriod(userId, period != null ? period : "week");
+        
+        if (stats.isPresent()) {
+            return ResponseEntity.ok(stats.get());
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package com.habitscanner.habitscanner.controller;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.habitscanner.habitscanner.service.TokenValidationService;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.habitscanner.habitscanner.filter.TokenAuthenticationFilter;
+import com.habitscanner.habitscanner.service.TokenIntrospection;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,33 +13,26 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class UserController {
 
-    @Autowired
-    private TokenValidationService tokenValidationService;
-
     @GetMapping("/user")
-    public ResponseEntity<Map<String, Object>> getUser(@RequestHeader(value = "Authorization", required = false) String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+    public ResponseEntity<Map<String, Object>> getUser(
+            @RequestAttribute(value = TokenAuthenticationFilter.TOKEN_INTROSPECTION_ATTRIBUTE, required = false) TokenIntrospection introspection) {
+        // The authentication filter has already validated the bearer token, if any
+        if (introspection == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Authorization header missing or invalid"));
         }
         
-        String token = authHeader.substring(7); // Remove "Bearer " prefix
-        
-        if (!tokenValidationService.isValidGoogleToken(token)) {
+        if (!introspection.isValid()) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
         
-        JsonNode userInfo = tokenValidationService.getUserInfoFromToken(token);
-        if (userInfo == null) {
-            return ResponseEntity.status(401).body(Map.of("error", "Could not retrieve user info"));
-        }
+        String email = introspection.getEmail() != null ? introspection.getEmail() : "";
         
         Map<String, Object> response = new HashMap<>();
-        response.put("id", userInfo.has("user_id") ? userInfo.get("user_id").asText() : "");
-        response.put("email", userInfo.has("email") ? userInfo.get("email").asText() : "");
-        response.put("name", userInfo.has("email") ? userInfo.get("email").asText() : "");
+        response.put("id", introspection.getUserId());
+        response.put("email", email);
+        response.put("name", email);
         response.put("picture", ""); // Google tokeninfo doesn't provide picture
         
         return ResponseEntity.ok(response);
     }
 }
-
@@ -0,0 +1,33 @@
+package com.habitscanner.habitscanner.dto;
+
+import java.util.List;
+
+public class HabitEntryPageDTO {
+    private List<HabitEntryDTO> entries;
+    private String nextCursor;
+    
+    // Constructors
+    public HabitEntryPageDTO() {}
+    
+    public HabitEntryPageDTO(List<HabitEntryDTO> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public List<HabitEntryDTO> getEntries() {
+        return entries;
+    }
+    
+    public void setEntries(List<HabitEntryDTO> entries) {
+        this.entries = entries;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,82 @@
+package com.habitscanner.habitscanner.dto;
+
+public class HabitStatsDTO {
+    private Long id;
+    private String name;
+    private Long completed;
+    private Long total;
+    private Double rate;
+    private Integer currentStreak;
+    private Integer longestStreak;
+    
+    // Constructors
+    public HabitStatsDTO() {}
+    
+    public HabitStatsDTO(Long id, String name, Long completed, Long total, Double rate,
+                         Integer currentStreak, Integer longestStreak) {
+        this.id = id;
+        this.name = name;
+        this.completed = completed;
+        this.total = total;
+        this.rate = rate;
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public Long getCompleted() {
+        return completed;
+    }
+    
+    public void setCompleted(Long completed) {
+        this.completed = completed;
+    }
+    
+    public Long getTotal() {
+        return total;
+    }
+    
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+    
+    public Double getRate() {
+        return rate;
+    }
+    
+    public void setRate(Double rate) {
+        this.rate = rate;
+    }
+    
+    public Integer getCurrentStreak() {
+        return currentStreak;
+    }
+    
+    public void setCurrentStreak(Integer currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+    
+    public Integer getLongestStreak() {
+        return longestStreak;
+    }
+    
+    public void setLongestStreak(Integer longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+}
@@ -0,0 +1,86 @@
+package com.habitscanner.habitscanner.dto;
+
+import com.habitscanner.habitscanner.model.HistoryFormat;
+import com.habitscanner.habitscanner.model.ImportStatus;
+import java.time.LocalDateTime;
+
+public class ImportJobDTO {
+    private Long id;
+    private HistoryFormat format;
+    private ImportStatus status;
+    private Long rowsCommitted;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public ImportJobDTO() {}
+    
+    public ImportJobDTO(Long id, HistoryFormat format, ImportStatus status, Long rowsCommitted, String error,
+                        LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.format = format;
+        this.status = status;
+        this.rowsCommitted = rowsCommitted;
+        this.error = error;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public HistoryFormat getFormat() {
+        return format;
+    }
+    
+    public void setFormat(HistoryFormat format) {
+        this.format = format;
+    }
+    
+    public ImportStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(ImportStatus status) {
+        this.status = status;
+    }
+    
+    public Long getRowsCommitted() {
+        return rowsCommitted;
+    }
+    
+    public void setRowsCommitted(Long rowsCommitted) {
+        this.rowsCommitted = rowsCommitted;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
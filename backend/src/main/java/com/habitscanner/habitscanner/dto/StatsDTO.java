@@ -0,0 +1,85 @@
+package com.habitscanner.habitscanner.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class StatsDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long totalEntries;
+    private Long completedEntries;
+    private Double completionRate;
+    private Integer bestStreak;
+    private List<HabitStatsDTO> habitStats;
+    
+    // Constructors
+    public StatsDTO() {}
+    
+    public StatsDTO(LocalDate startDate, LocalDate endDate, Long totalEntries, Long completedEntries,
+                    Double completionRate, Integer bestStreak, List<HabitStatsDTO> habitStats) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.totalEntries = totalEntries;
+        this.completedEntries = completedEntries;
+        this.completionRate = completionRate;
+        this.bestStreak = bestStreak;
+        this.habitStats = habitStats;
+    }
+    
+    // Getters and Setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+    
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+    
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+    
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+    
+    public Long getTotalEntries() {
+        return totalEntries;
+    }
+    
+    public void setTotalEntries(Long totalEntries) {
+        this.totalEntries = totalEntries;
+    }
+    
+    public Long getCompletedEntries() {
+        return completedEntries;
+    }
+    
+    public void setCompletedEntries(Long completedEntries) {
+        this.completedEntries = completedEntries;
+    }
+    
+    public Double getCompletionRate() {
+        return completionRate;
+    }
+    
+    public void setCompletionRate(Double completionRate) {
+        this.completionRate = completionRate;
+    }
+    
+    public Integer getBestStreak() {
+        return bestStreak;
+    }
+    
+    public void setBestStreak(Integer bestStreak) {
+        this.bestStreak = bestStreak;
+    }
+    
+    public List<HabitStatsDTO> getHabitStats() {
+        return habitStats;
+    }
+    
+    public void setHabitStats(List<HabitStatsDTO> habitStats) {
+        this.habitStats = habitStats;
+    }
+}
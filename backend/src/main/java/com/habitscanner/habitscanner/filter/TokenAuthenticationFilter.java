@@ -1,5 +1,6 @@
 package com.habitscanner.habitscanner.filter;
 
+import com.habitscanner.habitscanner.service.TokenIntrospection;
 import com.habitscanner.habitscanner.service.TokenValidationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -17,6 +18,12 @@ import java.util.ArrayList;
 @Component
 public class TokenAuthenticationFilter extends OncePerRequestFilter {
 
+    /**
+     * Request attribute holding the {@link TokenIntrospection} of the bearer token, so
+     * controllers can reuse it instead of validating the token again.
+     */
+    public static final String TOKEN_INTROSPECTION_ATTRIBUTE = "com.habitscanner.habitscanner.tokenIntrospection";
+
     @Autowired
     private TokenValidationService tokenValidationService;
 
@@ -29,17 +36,17 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             
-            if (tokenValidationService.isValidGoogleToken(token)) {
-                String userId = tokenValidationService.getUserIdFromToken(token);
-                if (userId != null) {
-                    UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(userId, null, new ArrayList<>());
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                }
+            TokenIntrospection introspection = tokenValidationService.introspect(token);
+            request.setAttribute(TOKEN_INTROSPECTION_ATTRIBUTE, introspection);
+
+            if (introspection.isValid()) {
+                UsernamePasswordAuthenticationToken authentication = 
+                    new UsernamePasswordAuthenticationToken(introspection.getUserId(), null, new ArrayList<>());
+                authentication.setDetails(introspection);
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }
         
         filterChain.doFilter(request, response);
     }
 }
-
@@ -1,15 +1,25 @@
 package com.habitscanner.habitscanner.model;
 
+import com.habitscanner.habitscanner.config.CacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "habits")
+@Table(name = "habits", indexes = {
+    // Active habit listings filter on the owner and order by creation time
+    @Index(name = "idx_habits_user_active_created", columnList = "user_id, active, created_at")
+})
+// Read by id for every ownership check and rarely written; kept in the second-level cache
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.HABITS_REGION)
 public class Habit {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "habits_seq")
+    @SequenceGenerator(name = "habits_seq", sequenceName = "habits_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
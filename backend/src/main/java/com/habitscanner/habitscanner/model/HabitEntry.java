@@ -5,14 +5,18 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "habit_entries")
+@Table(name = "habit_entries", uniqueConstraints = {
+    // One entry per habit and day; also serves lookups by habit and by habit and date range
+    @UniqueConstraint(name = "uk_habit_entries_habit_date", columnNames = {"habit_id", "date"})
+})
 public class HabitEntry {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "habit_entries_seq")
+    @SequenceGenerator(name = "habit_entries_seq", sequenceName = "habit_entries_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "habit_id", nullable = false)
+    @JoinColumn(name = "habit_id", nullable = false, foreignKey = @ForeignKey(name = "fk_habit_entries_habit"))
     private Habit habit;
     
     @Column(nullable = false)
@@ -0,0 +1,104 @@
+package com.habitscanner.habitscanner.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-habit statistics summary, kept up to date on every entry write so that
+ * reading a habit's streaks and completion rate does not scan its history.
+ */
+@Entity
+@Table(name = "habit_statistics")
+public class HabitStatistics {
+    @Id
+    private Long habitId;
+    
+    @Column(nullable = false)
+    private Integer totalEntries = 0;
+    
+    @Column(nullable = false)
+    private Integer completedEntries = 0;
+    
+    @Column(nullable = false)
+    private Integer longestStreak = 0;
+    
+    // Most recent completed day and the length of the streak ending on it
+    private LocalDate lastStreakEnd;
+    
+    @Column(nullable = false)
+    private Integer lastStreakLength = 0;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public HabitStatistics() {}
+    
+    public HabitStatistics(Long habitId) {
+        this.habitId = habitId;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getHabitId() {
+        return habitId;
+    }
+    
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+    
+    public Integer getTotalEntries() {
+        return totalEntries;
+    }
+    
+    public void setTotalEntries(Integer totalEntries) {
+        this.totalEntries = totalEntries;
+    }
+    
+    public Integer getCompletedEntries() {
+        return completedEntries;
+    }
+    
+    public void setCompletedEntries(Integer completedEntries) {
+        this.completedEntries = completedEntries;
+    }
+    
+    public Integer getLongestStreak() {
+        return longestStreak;
+    }
+    
+    public void setLongestStreak(Integer longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+    
+    public LocalDate getLastStreakEnd() {
+        return lastStreakEnd;
+    }
+    
+    public void setLastStreakEnd(LocalDate lastStreakEnd) {
+        this.lastStreakEnd = lastStreakEnd;
+    }
+    
+    public Integer getLastStreakLength() {
+        return lastStreakLength;
+    }
+    
+    public void setLastStreakLength(Integer lastStreakLength) {
+        this.lastStreakLength = lastStreakLength;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
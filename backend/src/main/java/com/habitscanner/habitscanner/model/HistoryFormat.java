@@ -0,0 +1,42 @@
+package com.habitscanner.habitscanner.model;
+
+import java.util.Optional;
+
+/**
+ * File formats for exporting and importing a user's history.
+ *
+ * <ul>
+ *   <li>{@link #NDJSON}: one JSON object per line, {@code "type": "habit"} rows with the
+ *       habit's settings followed by {@code "type": "entry"} rows naming their habit</li>
+ *   <li>{@link #CSV}: entries only, with a {@code habit,date,completed,notes} header</li>
+ * </ul>
+ */
+public enum HistoryFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    HistoryFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static Optional<HistoryFormat> parse(String name) {
+        for (HistoryFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
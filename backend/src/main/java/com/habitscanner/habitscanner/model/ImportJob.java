@@ -0,0 +1,123 @@
+package com.habitscanner.habitscanner.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one history import. Rows are counted from the start of the uploaded
+ * file; {@code rowsCommitted} only moves in the transaction that writes those rows,
+ * so a failed import can be resumed by uploading the same file again.
+ */
+@Entity
+@Table(name = "import_jobs", indexes = {
+    @Index(name = "idx_import_jobs_user", columnList = "user_id")
+})
+public class ImportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_jobs_seq")
+    @SequenceGenerator(name = "import_jobs_seq", sequenceName = "import_jobs_seq", allocationSize = 1)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HistoryFormat format;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportStatus status = ImportStatus.RUNNING;
+    
+    @Column(nullable = false)
+    private Long rowsCommitted = 0L;
+    
+    @Column(length = 500)
+    private String error;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public ImportJob() {}
+    
+    public ImportJob(String userId, HistoryFormat format) {
+        this.userId = userId;
+        this.format = format;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public HistoryFormat getFormat() {
+        return format;
+    }
+    
+    public void setFormat(HistoryFormat format) {
+        this.format = format;
+    }
+    
+    public ImportStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(ImportStatus status) {
+        this.status = status;
+    }
+    
+    public Long getRowsCommitted() {
+        return rowsCommitted;
+    }
+    
+    public void setRowsCommitted(Long rowsCommitted) {
+        this.rowsCommitted = rowsCommitted;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,7 @@
+package com.habitscanner.habitscanner.model;
+
+public enum ImportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
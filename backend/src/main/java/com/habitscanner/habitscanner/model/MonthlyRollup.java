@@ -0,0 +1,101 @@
+package com.habitscanner.habitscanner.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * One habit's entries of one calendar month, kept up to date on every entry write so
+ * that ranges spanning whole months are counted from one row per habit and month
+ * instead of one per day. Bit {@code d - 1} of the masks stands for day {@code d}.
+ */
+@Entity
+@Table(name = "monthly_rollups")
+@IdClass(MonthlyRollupId.class)
+public class MonthlyRollup {
+    @Id
+    private Long habitId;
+    
+    // First day of the month
+    @Id
+    private LocalDate monthStart;
+    
+    // Days that have an entry
+    @Column(nullable = false)
+    private Integer entryDays = 0;
+    
+    // Days whose entry is completed
+    @Column(nullable = false)
+    private Integer completedDays = 0;
+    
+    @Column(nullable = false)
+    private Integer entryCount = 0;
+    
+    @Column(nullable = false)
+    private Integer completedCount = 0;
+    
+    // Also tells Spring Data whether a row with an assigned id is new
+    @Version
+    @Column(nullable = false)
+    private Integer version;
+    
+    // Constructors
+    public MonthlyRollup() {}
+    
+    public MonthlyRollup(Long habitId, LocalDate monthStart) {
+        this.habitId = habitId;
+        this.monthStart = monthStart;
+    }
+    
+    // Getters and Setters
+    public Long getHabitId() {
+        return habitId;
+    }
+    
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+    
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+    
+    public void setMonthStart(LocalDate monthStart) {
+        this.monthStart = monthStart;
+    }
+    
+    public Integer getEntryDays() {
+        return entryDays;
+    }
+    
+    public void setEntryDays(Integer entryDays) {
+        this.entryDays = entryDays;
+    }
+    
+    public Integer getCompletedDays() {
+        return completedDays;
+    }
+    
+    public void setCompletedDays(Integer completedDays) {
+        this.completedDays = completedDays;
+    }
+    
+    public Integer getEntryCount() {
+        return entryCount;
+    }
+    
+    public void setEntryCount(Integer entryCount) {
+        this.entryCount = entryCount;
+    }
+    
+    public Integer getCompletedCount() {
+        return completedCount;
+    }
+    
+    public void setCompletedCount(Integer completedCount) {
+        this.completedCount = completedCount;
+    }
+    
+    public Integer getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,41 @@
+package com.habitscanner.habitscanner.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Primary key of {@link MonthlyRollup}.
+ */
+public class MonthlyRollupId implements Serializable {
+    private Long habitId;
+    private LocalDate monthStart;
+    
+    public MonthlyRollupId() {}
+    
+    public MonthlyRollupId(Long habitId, LocalDate monthStart) {
+        this.habitId = habitId;
+        this.monthStart = monthStart;
+    }
+    
+    public Long getHabitId() {
+        return habitId;
+    }
+    
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MonthlyRollupId)) return false;
+        MonthlyRollupId other = (MonthlyRollupId) o;
+        return Objects.equals(habitId, other.habitId) && Objects.equals(monthStart, other.monthStart);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(habitId, monthStart);
+    }
+}
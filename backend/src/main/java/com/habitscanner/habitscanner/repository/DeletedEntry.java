@@ -0,0 +1,16 @@
+package com.habitscanner.habitscanner.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Habit, day and completion of an entry removed by
+ * {@link HabitEntryRepository#deleteByIdAndUserId(Long, String)}.
+ */
+public interface DeletedEntry {
+    
+    Long getHabitId();
+    
+    LocalDate getDate();
+    
+    Boolean getCompleted();
+}
@@ -0,0 +1,14 @@
+package com.habitscanner.habitscanner.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Day and completion of one entry, as returned by
+ * {@link HabitEntryRepository#findDaysByHabitId(Long)}.
+ */
+public interface EntryDay {
+    
+    LocalDate getDate();
+    
+    Boolean getCompleted();
+}
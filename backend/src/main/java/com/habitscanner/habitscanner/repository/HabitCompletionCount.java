@@ -0,0 +1,14 @@
+package com.habitscanner.habitscanner.repository;
+
+/**
+ * Entry counts of one habit over a date range, as returned by the grouped queries
+ * in {@link HabitEntryRepository} and {@link MonthlyRollupRepository}.
+ */
+public interface HabitCompletionCount {
+    
+    Long getHabitId();
+    
+    Long getTotal();
+    
+    Long getCompleted();
+}
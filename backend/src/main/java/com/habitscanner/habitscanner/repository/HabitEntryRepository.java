@@ -1,29 +1,99 @@
 package com.habitscanner.habitscanner.repository;
 
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
 import com.habitscanner.habitscanner.model.HabitEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface HabitEntryRepository extends JpaRepository<HabitEntry, Long> {
     
+    // Read-only listings select straight into DTOs, joining the habit's id and name
+    // instead of hydrating managed entities and lazy-loading each habit
+    String ENTRY_DTO_SELECT = "SELECT new com.habitscanner.habitscanner.dto.HabitEntryDTO(" +
+            "he.id, h.id, h.name, he.date, he.completed, he.notes, he.createdAt, he.updatedAt) " +
+            "FROM HabitEntry he JOIN he.habit h ";
+    
+    // Rows the driver fetches per round trip when a query is consumed as a Stream
+    String STREAM_FETCH_SIZE = "500";
+    
     List<HabitEntry> findByHabitId(Long habitId);
     
+    List<HabitEntry> findByHabitIdIn(Collection<Long> habitIds);
+    
     List<HabitEntry> findByHabitIdAndDateBetween(Long habitId, LocalDate startDate, LocalDate endDate);
     
+    List<HabitEntry> findByHabitIdAndDateIn(Long habitId, Collection<LocalDate> dates);
+    
     Optional<HabitEntry> findByHabitIdAndDate(Long habitId, LocalDate date);
     
-    @Query("SELECT he FROM HabitEntry he WHERE he.habit.userId = :userId AND he.date = :date")
-    List<HabitEntry> findByUserIdAndDate(@Param("userId") String userId, @Param("date") LocalDate date);
+    // Owner-scoped lookups: another user's entry is not found, so the ownership check
+    // and the read are one statement
+    
+    @Query("SELECT he FROM HabitEntry he JOIN FETCH he.habit h WHERE h.id = :habitId AND h.userId = :userId AND he.date = :date")
+    Optional<HabitEntry> findByHabitIdAndUserIdAndDate(@Param("habitId") Long habitId, @Param("userId") String userId,
+                                                       @Param("date") LocalDate date);
+    
+    // Deletes the entry and returns what it held, in one statement (an H2 data change
+    // delta table); empty if there is no such entry or the user does not own it
+    @Query(value = "SELECT habit_id AS habitId, date, completed FROM OLD TABLE (" +
+                   "DELETE FROM habit_entries WHERE id = :id AND habit_id IN (SELECT id FROM habits WHERE user_id = :userId))",
+           nativeQuery = true)
+    Optional<DeletedEntry> deleteByIdAndUserId(@Param("id") Long id, @Param("userId") String userId);
+    
+    long countByHabitId(Long habitId);
+    
+    long countByHabitIdAndCompletedTrue(Long habitId);
+    
+    @Query("SELECT he.date AS date, he.completed AS completed FROM HabitEntry he WHERE he.habit.id = :habitId")
+    List<EntryDay> findDaysByHabitId(@Param("habitId") Long habitId);
+    
+    @Query("SELECT DISTINCT he.date FROM HabitEntry he WHERE he.habit.id = :habitId AND he.completed = true ORDER BY he.date")
+    List<LocalDate> findCompletedDatesByHabitId(@Param("habitId") Long habitId);
+    
+    // Paged listings walk the (date, id) order from a cursor instead of an OFFSET, so
+    // a deep page costs the same as the first one
+    
+    @Query(ENTRY_DTO_SELECT + "WHERE h.id = :habitId AND h.userId = :userId ORDER BY he.date, he.id")
+    List<HabitEntryDTO> findDTOsByHabitIdAndUserId(@Param("habitId") Long habitId, @Param("userId") String userId, Limit limit);
+    
+    @Query(ENTRY_DTO_SELECT + "WHERE h.id = :habitId AND h.userId = :userId " +
+           "AND he.date >= :afterDate AND (he.date > :afterDate OR he.id > :afterId) ORDER BY he.date, he.id")
+    List<HabitEntryDTO> findDTOsByHabitIdAndUserIdAfter(@Param("habitId") Long habitId, @Param("userId") String userId,
+                                                        @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, Limit limit);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(ENTRY_DTO_SELECT + "WHERE h.userId = :userId ORDER BY h.id, he.date")
+    Stream<HabitEntryDTO> streamDTOsByUserId(@Param("userId") String userId);
+    
+    @Query(ENTRY_DTO_SELECT + "WHERE h.userId = :userId AND he.date = :date")
+    List<HabitEntryDTO> findDTOsByUserIdAndDate(@Param("userId") String userId, @Param("date") LocalDate date);
+    
+    @Query(ENTRY_DTO_SELECT + "WHERE h.userId = :userId AND he.date BETWEEN :startDate AND :endDate ORDER BY he.date, he.id")
+    List<HabitEntryDTO> findDTOsByUserIdAndDateBetween(@Param("userId") String userId, @Param("startDate") LocalDate startDate,
+                                                       @Param("endDate") LocalDate endDate, Limit limit);
+    
+    @Query(ENTRY_DTO_SELECT + "WHERE h.userId = :userId AND he.date BETWEEN :startDate AND :endDate " +
+           "AND he.date >= :afterDate AND (he.date > :afterDate OR he.id > :afterId) ORDER BY he.date, he.id")
+    List<HabitEntryDTO> findDTOsByUserIdAndDateBetweenAfter(@Param("userId") String userId, @Param("startDate") LocalDate startDate,
+                                                            @Param("endDate") LocalDate endDate, @Param("afterDate") LocalDate afterDate,
+                                                            @Param("afterId") Long afterId, Limit limit);
     
-    @Query("SELECT he FROM HabitEntry he WHERE he.habit.userId = :userId AND he.date BETWEEN :startDate AND :endDate")
-    List<HabitEntry> findByUserIdAndDateBetween(@Param("userId") String userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    @Query("SELECT he.habit.id AS habitId, COUNT(he) AS total, SUM(CASE WHEN he.completed = true THEN 1 ELSE 0 END) AS completed " +
+           "FROM HabitEntry he WHERE he.habit.userId = :userId AND he.date BETWEEN :startDate AND :endDate GROUP BY he.habit.id")
+    List<HabitCompletionCount> countEntriesByHabitForUserIdAndDateBetween(@Param("userId") String userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
     
     @Query("SELECT COUNT(he) FROM HabitEntry he WHERE he.habit.userId = :userId AND he.completed = true AND he.date BETWEEN :startDate AND :endDate")
     Long countCompletedEntriesByUserIdAndDateBetween(@Param("userId") String userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
@@ -1,12 +1,21 @@
 package com.habitscanner.habitscanner.repository;
 
+import com.habitscanner.habitscanner.config.CacheConfig;
 import com.habitscanner.habitscanner.model.Habit;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface HabitRepository extends JpaRepository<Habit, Long> {
@@ -15,9 +24,35 @@ public interface HabitRepository extends JpaRepository<Habit, Long> {
     
     List<Habit> findByUserId(String userId);
     
+    // The habit if the user owns it. A lookup by id, so answered by the second-level
+    // cache when it holds the habit; a query on (id, user) would always hit the database
+    default Optional<Habit> findByIdAndUserId(Long id, String userId) {
+        return findById(id).filter(habit -> habit.getUserId().equals(userId));
+    }
+    
+    boolean existsByIdAndUserId(Long id, String userId);
+    
+    // Bypasses the second-level cache; the row lock is what callers are after
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Habit h WHERE h.id = :id")
+    Optional<Habit> findByIdForUpdate(@Param("id") Long id);
+    
+    // Cached per user and data version, unless read from a replica. Writes move the version
+    // once they commit, so a list read before one is put under a key no later read asks
+    // for, even when its put is deferred past the write; the cached habits are detached
+    // and shared, so callers must not modify them
+    @Cacheable(cacheNames = CacheConfig.ACTIVE_HABITS, key = "#p0 + '@' + @userDataVersions.version(#p0)",
+               unless = "@replicaReads.isCurrentTransactionOnReplica()")
     @Query("SELECT h FROM Habit h WHERE h.userId = :userId AND h.active = true ORDER BY h.createdAt DESC")
     List<Habit> findActiveHabitsByUserIdOrderByCreatedAtDesc(@Param("userId") String userId);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = HabitEntryRepository.STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h FROM Habit h WHERE h.userId = :userId ORDER BY h.id")
+    Stream<Habit> streamByUserId(@Param("userId") String userId);
+    
     @Query("SELECT COUNT(h) FROM Habit h WHERE h.userId = :userId AND h.active = true")
     Long countActiveHabitsByUserId(@Param("userId") String userId);
 }
@@ -0,0 +1,23 @@
+package com.habitscanner.habitscanner.repository;
+
+import com.habitscanner.habitscanner.model.HabitStatistics;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HabitStatisticsRepository extends JpaRepository<HabitStatistics, Long> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM HabitStatistics s WHERE s.habitId = :habitId")
+    Optional<HabitStatistics> findByHabitIdForUpdate(@Param("habitId") Long habitId);
+    
+    @Query("SELECT h.id FROM Habit h WHERE NOT EXISTS (SELECT s FROM HabitStatistics s WHERE s.habitId = h.id)")
+    List<Long> findHabitIdsWithoutStatistics();
+}
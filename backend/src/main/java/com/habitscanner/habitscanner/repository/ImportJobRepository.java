@@ -0,0 +1,13 @@
+package com.habitscanner.habitscanner.repository;
+
+import com.habitscanner.habitscanner.model.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+    
+    Optional<ImportJob> findByIdAndUserId(Long id, String userId);
+}
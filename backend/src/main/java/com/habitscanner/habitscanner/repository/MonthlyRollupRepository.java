@@ -0,0 +1,32 @@
+package com.habitscanner.habitscanner.repository;
+
+import com.habitscanner.habitscanner.model.MonthlyRollup;
+import com.habitscanner.habitscanner.model.MonthlyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, MonthlyRollupId> {
+    
+    List<MonthlyRollup> findByHabitId(Long habitId);
+    
+    List<MonthlyRollup> findByHabitIdAndMonthStartIn(Long habitId, Collection<LocalDate> monthStarts);
+    
+    // Month bounds are first days of months; both are included
+    @Query("SELECT r.habitId AS habitId, SUM(r.entryCount) AS total, SUM(r.completedCount) AS completed " +
+           "FROM MonthlyRollup r JOIN Habit h ON h.id = r.habitId " +
+           "WHERE h.userId = :userId AND r.monthStart BETWEEN :firstMonth AND :lastMonth GROUP BY r.habitId")
+    List<HabitCompletionCount> countEntriesByHabitForUserIdAndMonthBetween(@Param("userId") String userId, @Param("firstMonth") LocalDate firstMonth,
+                                                                          @Param("lastMonth") LocalDate lastMonth);
+    
+    @Query("SELECT COALESCE(SUM(r.completedCount), 0) FROM MonthlyRollup r JOIN Habit h ON h.id = r.habitId " +
+           "WHERE h.userId = :userId AND r.monthStart BETWEEN :firstMonth AND :lastMonth")
+    Long countCompletedEntriesByUserIdAndMonthBetween(@Param("userId") String userId, @Param("firstMonth") LocalDate firstMonth,
+                                                      @Param("lastMonth") LocalDate lastMonth);
+}
@@ -0,0 +1,173 @@
+package com.habitscanner.habitscanner.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Completion history of one habit as a bitset with one bit per day, set when the
+ * day has a completed entry. Streaks are computed a 64-day word at a time, so a
+ * decade of daily history is about 460 bytes and a handful of word operations.
+ *
+ * <p>Bit 0 is the origin day, normally the habit's first completed day. Setting a
+ * day before the origin moves the origin back by whole words.
+ */
+public final class CompletionTimeline {
+
+    private long originDay;
+    private long[] words;
+
+    public CompletionTimeline(LocalDate origin) {
+        this.originDay = origin.toEpochDay();
+        this.words = new long[1];
+    }
+
+    public static CompletionTimeline of(Collection<LocalDate> completedDates) {
+        if (completedDates.isEmpty()) {
+            return new CompletionTimeline(LocalDate.now());
+        }
+
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (LocalDate date : completedDates) {
+            long day = date.toEpochDay();
+            first = Math.min(first, day);
+            last = Math.max(last, day);
+        }
+
+        // Size the words once instead of growing them day by day
+        CompletionTimeline timeline = new CompletionTimeline(LocalDate.ofEpochDay(first));
+        timeline.words = new long[(int) ((last - first) >>> 6) + 1];
+        for (LocalDate date : completedDates) {
+            long index = date.toEpochDay() - first;
+            timeline.words[(int) (index >>> 6)] |= 1L << index;
+        }
+        return timeline;
+    }
+
+    public synchronized CompletionTimeline copy() {
+        CompletionTimeline copy = new CompletionTimeline(LocalDate.ofEpochDay(originDay));
+        copy.words = words.clone();
+        return copy;
+    }
+
+    public synchronized void set(LocalDate date, boolean completed) {
+        long index = date.toEpochDay() - originDay;
+        if (index < 0) {
+            if (!completed) return;
+            growLeft(-index);
+            index = date.toEpochDay() - originDay;
+        }
+
+        int wordIndex = (int) (index >>> 6);
+        if (wordIndex >= words.length) {
+            if (!completed) return;
+            words = Arrays.copyOf(words, wordIndex + 1);
+        }
+
+        long mask = 1L << index;
+        if (completed) {
+            words[wordIndex] |= mask;
+        } else {
+            words[wordIndex] &= ~mask;
+        }
+    }
+
+    public synchronized boolean isCompleted(LocalDate date) {
+        long index = date.toEpochDay() - originDay;
+        if (index < 0 || (index >>> 6) >= words.length) return false;
+        return (words[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return the number of consecutive completed days ending on {@code date},
+     *         0 if that day is not completed
+     */
+    public synchronized int streakEndingAt(LocalDate date) {
+        long index = date.toEpochDay() - originDay;
+        if (index < 0 || (index >>> 6) >= words.length) return 0;
+
+        int wordIndex = (int) (index >>> 6);
+        int bit = (int) (index & 63);
+
+        // Move the day's bit to the top; the run is the count of leading ones
+        int streak = Long.numberOfLeadingZeros(~(words[wordIndex] << (63 - bit)));
+        if (streak <= bit) {
+            return streak;
+        }
+
+        // The run reaches the start of the word and may continue into earlier ones
+        for (int i = wordIndex - 1; i >= 0; i--) {
+            long word = words[i];
+            if (word == -1L) {
+                streak += 64;
+            } else {
+                return streak + Long.numberOfLeadingZeros(~word);
+            }
+        }
+        return streak;
+    }
+
+    public synchronized int longestStreak() {
+        int longest = 0;
+        int run = 0;
+
+        for (long word : words) {
+            if (word == -1L) {
+                run += 64;
+                continue;
+            }
+            if (word == 0) {
+                longest = Math.max(longest, run);
+                run = 0;
+                continue;
+            }
+
+            // Ones at the low end extend the run carried over from the previous word
+            int low = Long.numberOfTrailingZeros(~word);
+            int high = Long.numberOfLeadingZeros(~word);
+            longest = Math.max(longest, run + low);
+
+            // A run strictly inside the word only matters if it could beat the best so far
+            if (64 - low - high > longest) {
+                longest = Math.max(longest, longestRunIn(word));
+            }
+
+            // Ones at the high end start a run that may continue into the next word
+            run = high;
+        }
+
+        return Math.max(longest, run);
+    }
+
+    /**
+     * @return the most recent completed day, or {@code null} if there is none
+     */
+    public synchronized LocalDate lastCompletedDate() {
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i] != 0) {
+                int bit = 63 - Long.numberOfLeadingZeros(words[i]);
+                return LocalDate.ofEpochDay(originDay + ((long) i << 6) + bit);
+            }
+        }
+        return null;
+    }
+
+    private void growLeft(long days) {
+        int extraWords = (int) ((days + 63) >>> 6);
+        long[] grown = new long[words.length + extraWords];
+        System.arraycopy(words, 0, grown, extraWords, words.length);
+        words = grown;
+        originDay -= 64L * extraWords;
+    }
+
+    // Each step shortens every run of ones by one, so the step count is the longest run
+    private static int longestRunIn(long word) {
+        int length = 0;
+        while (word != 0) {
+            word &= word >>> 1;
+            length++;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,168 @@
+package com.habitscanner.habitscanner.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habitscanner.habitscanner.config.ReplicaReads;
+import com.habitscanner.habitscanner.repository.HabitEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-memory {@link CompletionTimeline} per habit, loaded from the habit's completed
+ * dates on first use and kept current by entry writes.
+ *
+ * <p>The cached timelines only ever hold committed completions. A transaction that
+ * writes entries sees its own changes on a private copy, and they reach the cache
+ * once it commits.
+ */
+@Component
+public class CompletionTimelineCache {
+
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+
+    @Autowired
+    private ReplicaReads replicaReads;
+
+    private final AsyncCache<Long, CompletionTimeline> timelines;
+
+    public CompletionTimelineCache(@Value("${habitscanner.statistics.timeline-cache.max-size:100000}") long maxSize) {
+        this.timelines = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .buildAsync();
+    }
+
+    public CompletionTimeline get(Long habitId) {
+        WrittenTimelines written = currentWrites();
+        if (written != null && written.changes.containsKey(habitId)) {
+            return written.views.computeIfAbsent(habitId, this::viewOfWrites);
+        }
+
+        // A replica may not have caught up with the latest writes; what is read from it
+        // is used once but never cached
+        if (replicaReads.isCurrentTransactionOnReplica()) {
+            CompletableFuture<CompletionTimeline> cached = timelines.getIfPresent(habitId);
+            if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+                return cached.join();
+            }
+            return CompletionTimeline.of(habitEntryRepository.findCompletedDatesByHabitId(habitId));
+        }
+
+        // Loaded by the first caller outside the cache's internal lock, so a query that
+        // blocks does not pin the carrier thread of a virtual thread; others wait on it
+        CompletableFuture<CompletionTimeline> loading = new CompletableFuture<>();
+        CompletableFuture<CompletionTimeline> cached = timelines.asMap().putIfAbsent(habitId, loading);
+        if (cached != null) {
+            return cached.join();
+        }
+
+        try {
+            CompletionTimeline timeline = CompletionTimeline.of(habitEntryRepository.findCompletedDatesByHabitId(habitId));
+            loading.complete(timeline);
+            return timeline;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Records a completion change made by the current transaction. Other transactions
+     * see it once this one commits.
+     */
+    public void update(Long habitId, LocalDate date, boolean completed) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyCommitted(habitId, Map.of(date, completed));
+            return;
+        }
+
+        WrittenTimelines written = currentWrites();
+        if (written == null) {
+            WrittenTimelines bound = new WrittenTimelines();
+            written = bound;
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                // A transaction started inside this one must not see its changes
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(CompletionTimelineCache.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(CompletionTimelineCache.this, bound);
+                }
+
+                @Override
+                public void afterCommit() {
+                    WrittenTimelines committed = currentWrites();
+                    if (committed != null) {
+                        committed.changes.forEach(CompletionTimelineCache.this::applyCommitted);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CompletionTimelineCache.this);
+                }
+            });
+        }
+        written.changes.computeIfAbsent(habitId, id -> new LinkedHashMap<>()).put(date, completed);
+        CompletionTimeline view = written.views.get(habitId);
+        if (view != null) {
+            view.set(date, completed);
+        }
+    }
+
+    public void invalidate(Long habitId) {
+        timelines.synchronous().invalidate(habitId);
+    }
+
+    // The cached timeline with the transaction's changes, or, if none is cached, the
+    // timeline as this transaction reads it, which includes its flushed writes
+    private CompletionTimeline viewOfWrites(Long habitId) {
+        CompletableFuture<CompletionTimeline> cached = timelines.getIfPresent(habitId);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return CompletionTimeline.of(habitEntryRepository.findCompletedDatesByHabitId(habitId));
+        }
+        CompletionTimeline view = cached.join().copy();
+        currentWrites().changes.get(habitId).forEach(view::set);
+        return view;
+    }
+
+    private void applyCommitted(Long habitId, Map<LocalDate, Boolean> changes) {
+        CompletableFuture<CompletionTimeline> cached = timelines.getIfPresent(habitId);
+        if (cached == null) {
+            return;
+        }
+        if (cached.isDone() && !cached.isCompletedExceptionally()) {
+            CompletionTimeline timeline = cached.join();
+            changes.forEach(timeline::set);
+        } else {
+            // Still loading: the load may have read the rows before the commit
+            timelines.asMap().remove(habitId, cached);
+        }
+    }
+
+    private WrittenTimelines currentWrites() {
+        return (WrittenTimelines) TransactionSynchronizationManager.getResource(this);
+    }
+
+    /**
+     * Completion changes of the current transaction per habit, and the timelines it
+     * reads them through.
+     */
+    private static final class WrittenTimelines {
+        private final Map<Long, Map<LocalDate, Boolean>> changes = new HashMap<>();
+        private final Map<Long, CompletionTimeline> views = new HashMap<>();
+    }
+}
@@ -0,0 +1,54 @@
+package com.habitscanner.habitscanner.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Position in an entry listing ordered by (date, id): the last entry of the previous
+ * page. Clients only see it as an opaque token.
+ */
+public final class EntryCursor {
+
+    private final LocalDate date;
+    private final Long id;
+
+    public EntryCursor(LocalDate date, Long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String position = date + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the cursor, or empty if the token was not produced by {@link #encode()}
+     */
+    public static Optional<EntryCursor> decode(String token) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = position.indexOf(':');
+            if (separator < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new EntryCursor(
+                LocalDate.parse(position.substring(0, separator)),
+                Long.parseLong(position.substring(separator + 1))
+            ));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
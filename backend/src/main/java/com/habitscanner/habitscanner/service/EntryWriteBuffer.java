@@ -0,0 +1,554 @@
+package com.habitscanner.habitscanner.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.model.Habit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind buffer of single check-ins. Active when
+ * {@code habitscanner.entries.write-behind.enabled=true}.
+ *
+ * <p>A check-in is kept per habit and day, so repeated toggles of the same day become
+ * one write, and is acknowledged once it is appended to a local journal and forced to
+ * disk. Check-ins appended while a force is running wait for the next one, which covers
+ * them all. The buffer is flushed every {@code flush-interval} through
+ * {@link HabitEntryService#applyBufferedEntries}, one batch per user; a read flushes
+ * the check-ins of its user only.
+ *
+ * <p>The journal is a directory of numbered segments of one JSON record per line.
+ * Each flush starts a new segment; the older ones are deleted once a flush has
+ * written everything buffered before it. On startup the remaining segments are
+ * replayed into the buffer, so check-ins acknowledged before a crash are written by
+ * the first flush.
+ */
+@Component
+@ConditionalOnProperty(name = "habitscanner.entries.write-behind.enabled", havingValue = "true")
+public class EntryWriteBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryWriteBuffer.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("entries-(\\d+)\\.journal");
+
+    // Lazy: HabitEntryService reads through this buffer as well
+    @Autowired
+    @Lazy
+    private HabitEntryService habitEntryService;
+
+    private final ObjectMapper objectMapper;
+    private final Path journalDir;
+    private final Duration flushInterval;
+    private final ScheduledExecutorService flusher;
+    private final Object flushLock = new Object();
+    private final Object forceLock = new Object();
+
+    // Guarded by this
+    private Map<EntryKey, PendingEntry> pending = new LinkedHashMap<>();
+    private Map<EntryKey, PendingEntry> inFlight = Map.of();
+    private final Set<EntryKey> discardedInFlight = new HashSet<>();
+    private long segment;
+    private FileChannel journal;
+    // Number of records appended to the journal so far
+    private long appended;
+
+    // Guarded by forceLock: records up to this number are on disk
+    private long forced;
+    private boolean forcing;
+
+    public EntryWriteBuffer(@Value("${habitscanner.entries.write-behind.journal-dir:${habitscanner.data-dir:./data}/entry-journal}") Path journalDir,
+                            @Value("${habitscanner.entries.write-behind.flush-interval:PT1S}") Duration flushInterval,
+                            ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.journalDir = journalDir;
+        this.flushInterval = flushInterval;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "entry-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(journalDir);
+            for (Path segmentFile : segments()) {
+                replay(segmentFile);
+                segment = Math.max(segment, segmentNumber(segmentFile));
+            }
+            openSegment(segment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open entry journal in " + journalDir, e);
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Replayed {} buffered entries from {}", pending.size(), journalDir);
+        }
+    }
+
+    /**
+     * Buffers a check-in of the habit, which the caller has checked the user owns.
+     *
+     * @return the entry as it will be written; without an id, as it may not exist yet
+     */
+    public HabitEntryDTO accept(Habit habit, HabitEntryDTO entryDTO, String userId) {
+        PendingEntry entry = new PendingEntry(userId, habit.getId(), habit.getName(), entryDTO.getDate(),
+                entryDTO.getCompleted(), entryDTO.getNotes(), LocalDateTime.now());
+        ObjectNode record = objectMapper.createObjectNode()
+                .put("userId", entry.userId)
+                .put("habitId", entry.habitId)
+                .put("habitName", entry.habitName)
+                .put("date", entry.date.toString())
+                .put("completed", entry.completed)
+                .put("notes", entry.notes)
+                .put("acceptedAt", entry.acceptedAt.toString());
+        long sequence;
+        synchronized (this) {
+            sequence = append(record);
+            pending.put(entry.key(), entry);
+        }
+        awaitForced(sequence);
+        return entry.toDTO(null, entry.acceptedAt);
+    }
+
+    /**
+     * Drops buffered check-ins of the habit on the given days, superseded by a write
+     * made directly to the database. One already being flushed is not retried if its
+     * flush fails, but may still be written if the flush commits after that write.
+     */
+    public void discard(Long habitId, Collection<LocalDate> dates) {
+        long sequence = 0;
+        synchronized (this) {
+            List<EntryKey> keys = dates.stream()
+                    .map(date -> new EntryKey(habitId, date))
+                    .filter(key -> pending.containsKey(key) || inFlight.containsKey(key))
+                    .collect(Collectors.toList());
+            for (EntryKey key : keys) {
+                sequence = appendDiscard(key);
+                pending.remove(key);
+                if (inFlight.containsKey(key)) {
+                    discardedInFlight.add(key);
+                }
+            }
+        }
+        awaitForced(sequence);
+    }
+
+    /**
+     * Runs a database read of the user's entries of one day and applies the check-ins
+     * buffered or being flushed for that day on top of its result.
+     */
+    public List<HabitEntryDTO> readThrough(String userId, LocalDate date, Supplier<List<HabitEntryDTO>> read) {
+        // Taken before the read: a check-in flushed in between is then in both, rather than in neither
+        List<PendingEntry> buffered = snapshot(userId).stream()
+                .filter(entry -> entry.date.equals(date))
+                .collect(Collectors.toList());
+        List<HabitEntryDTO> entries = read.get();
+        if (buffered.isEmpty()) {
+            return entries;
+        }
+
+        Map<Long, HabitEntryDTO> byHabitId = new LinkedHashMap<>();
+        entries.forEach(entry -> byHabitId.put(entry.getHabitId(), entry));
+        for (PendingEntry entry : buffered) {
+            HabitEntryDTO stored = byHabitId.get(entry.habitId);
+            byHabitId.put(entry.habitId, stored != null
+                    ? entry.toDTO(stored.getId(), stored.getCreatedAt())
+                    : entry.toDTO(null, entry.acceptedAt));
+        }
+        return new ArrayList<>(byHabitId.values());
+    }
+
+    public synchronized boolean hasPending(String userId) {
+        return Stream.concat(pending.values().stream(), inFlight.values().stream())
+                .anyMatch(entry -> entry.userId.equals(userId));
+    }
+
+    /**
+     * Writes every buffered check-in to the database. Waits for a flush already running.
+     * Check-ins whose write fails stay buffered, behind any newer one of the same day.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<EntryKey, PendingEntry> batch;
+            long flushedSegment;
+            synchronized (this) {
+                if (pending.isEmpty() && segment == firstSegment()) {
+                    return;
+                }
+                batch = startFlush(entry -> true);
+                flushedSegment = segment;
+                openSegment(segment + 1);
+            }
+
+            List<PendingEntry> failed = write(batch);
+
+            synchronized (this) {
+                finishFlush(failed);
+                if (failed.isEmpty()) {
+                    deleteSegmentsUpTo(flushedSegment);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the check-ins buffered for one user, like {@link #flush()}, leaving those of
+     * other users to the next scheduled flush.
+     */
+    public void flush(String userId) {
+        synchronized (flushLock) {
+            Map<EntryKey, PendingEntry> batch;
+            synchronized (this) {
+                batch = startFlush(entry -> entry.userId.equals(userId));
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<PendingEntry> failed = write(batch);
+
+            long sequence = 0;
+            synchronized (this) {
+                finishFlush(failed);
+                // The segments keep the written check-ins until the next full flush; each is
+                // marked as written, unless accepted again since, so that a restart does not
+                // replay it over a later write of the same day
+                Set<EntryKey> failedKeys = failed.stream().map(PendingEntry::key).collect(Collectors.toSet());
+                for (EntryKey key : batch.keySet()) {
+                    if (!failedKeys.contains(key) && !pending.containsKey(key)) {
+                        sequence = appendDiscard(key);
+                    }
+                }
+            }
+            awaitForced(sequence);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        // Best effort; whatever is not written stays in the journal for the next start
+        flushQuietly();
+        synchronized (this) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.warn("Could not close entry journal: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Entry write-behind flush failed: {}", e.getMessage());
+        }
+    }
+
+    // Guarded by this: moves the selected check-ins from pending to in flight
+    private Map<EntryKey, PendingEntry> startFlush(Predicate<PendingEntry> selected) {
+        Map<EntryKey, PendingEntry> batch = new LinkedHashMap<>();
+        Iterator<PendingEntry> entries = pending.values().iterator();
+        while (entries.hasNext()) {
+            PendingEntry entry = entries.next();
+            if (selected.test(entry)) {
+                batch.put(entry.key(), entry);
+                entries.remove();
+            }
+        }
+        inFlight = batch;
+        discardedInFlight.clear();
+        return batch;
+    }
+
+    // Writes the batch one user at a time; returns the check-ins whose write failed
+    private List<PendingEntry> write(Map<EntryKey, PendingEntry> batch) {
+        Map<String, List<PendingEntry>> byUserId = batch.values().stream()
+                .collect(Collectors.groupingBy(entry -> entry.userId, LinkedHashMap::new, Collectors.toList()));
+        List<PendingEntry> failed = new ArrayList<>();
+        for (Map.Entry<String, List<PendingEntry>> userEntries : byUserId.entrySet()) {
+            List<HabitEntryDTO> items = userEntries.getValue().stream()
+                    .map(entry -> entry.toDTO(null, entry.acceptedAt))
+                    .collect(Collectors.toList());
+            try {
+                if (habitEntryService.applyBufferedEntries(items, userEntries.getKey()).isEmpty()) {
+                    // Ownership was checked when accepted; nothing to retry
+                    logger.warn("Dropped {} buffered entries of user {}: habit not found", items.size(), userEntries.getKey());
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not flush {} buffered entries of user {}: {}", items.size(), userEntries.getKey(), e.getMessage());
+                failed.addAll(userEntries.getValue());
+            }
+        }
+        return failed;
+    }
+
+    // Guarded by this
+    private void finishFlush(List<PendingEntry> failed) {
+        for (PendingEntry entry : failed) {
+            if (!discardedInFlight.contains(entry.key())) {
+                pending.putIfAbsent(entry.key(), entry);
+            }
+        }
+        inFlight = Map.of();
+        discardedInFlight.clear();
+    }
+
+    private synchronized List<PendingEntry> snapshot(String userId) {
+        Map<EntryKey, PendingEntry> entries = new LinkedHashMap<>(inFlight);
+        discardedInFlight.forEach(entries::remove);
+        entries.putAll(pending);
+        return entries.values().stream()
+                .filter(entry -> entry.userId.equals(userId))
+                .collect(Collectors.toList());
+    }
+
+    // Guarded by this. Returns the record's number, to wait on with awaitForced outside the lock
+    private long append(ObjectNode record) {
+        try {
+            byte[] line = (objectMapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            return ++appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to entry journal", e);
+        }
+    }
+
+    // Guarded by this
+    private long appendDiscard(EntryKey key) {
+        return append(objectMapper.createObjectNode()
+                .put("discard", true)
+                .put("habitId", key.habitId)
+                .put("date", key.date.toString()));
+    }
+
+    // Returns once the journal is forced up to the given record. One caller at a time
+    // forces, covering every record appended before it started; the others wait, and
+    // most find their record covered by then, so concurrent writers share one force
+    private void awaitForced(long sequence) {
+        while (true) {
+            synchronized (forceLock) {
+                while (forcing && forced < sequence) {
+                    try {
+                        forceLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while forcing the entry journal", e);
+                    }
+                }
+                if (forced >= sequence) {
+                    return;
+                }
+                forcing = true;
+            }
+
+            long upTo;
+            FileChannel channel;
+            synchronized (this) {
+                upTo = appended;
+                channel = journal;
+            }
+            boolean done = false;
+            try {
+                channel.force(false);
+                done = true;
+            } catch (ClosedChannelException e) {
+                // A flush started a new segment, forcing this one before closing it
+                done = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot force entry journal", e);
+            } finally {
+                synchronized (forceLock) {
+                    forcing = false;
+                    if (done) {
+                        forced = Math.max(forced, upTo);
+                    }
+                    forceLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void replay(Path segmentFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(segmentFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Optional<JsonNode> record = parse(line);
+                if (record.isEmpty()) {
+                    // Torn write of a record that was never acknowledged
+                    continue;
+                }
+                JsonNode node = record.get();
+                EntryKey key = new EntryKey(node.get("habitId").asLong(), LocalDate.parse(node.get("date").asText()));
+                if (node.path("discard").asBoolean()) {
+                    pending.remove(key);
+                } else {
+                    pending.put(key, new PendingEntry(node.get("userId").asText(), key.habitId, node.get("habitName").asText(),
+                            key.date, node.get("completed").asBoolean(), node.get("notes").isNull() ? null : node.get("notes").asText(),
+                            LocalDateTime.parse(node.get("acceptedAt").asText())));
+                }
+            }
+        }
+    }
+
+    private Optional<JsonNode> parse(String line) {
+        try {
+            return Optional.of(objectMapper.readTree(line));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void openSegment(long number) {
+        try {
+            if (journal != null) {
+                journal.force(false);
+                journal.close();
+                synchronized (forceLock) {
+                    forced = Math.max(forced, appended);
+                    forceLock.notifyAll();
+                }
+            }
+            journal = FileChannel.open(journalDir.resolve("entries-" + number + ".journal"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segment = number;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open entry journal segment in " + journalDir, e);
+        }
+    }
+
+    private void deleteSegmentsUpTo(long number) {
+        try {
+            for (Path segmentFile : segments()) {
+                if (segmentNumber(segmentFile) <= number) {
+                    Files.delete(segmentFile);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete flushed entry journal segments: {}", e.getMessage());
+        }
+    }
+
+    private long firstSegment() {
+        try {
+            return segments().stream().mapToLong(EntryWriteBuffer::segmentNumber).min().orElse(segment);
+        } catch (IOException e) {
+            return segment;
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long segmentNumber(Path segmentFile) {
+        Matcher matcher = SEGMENT_NAME.matcher(segmentFile.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private static final class EntryKey {
+        private final Long habitId;
+        private final LocalDate date;
+
+        EntryKey(Long habitId, LocalDate date) {
+            this.habitId = habitId;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof EntryKey)) return false;
+            EntryKey other = (EntryKey) o;
+            return habitId.equals(other.habitId) && date.equals(other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(habitId, date);
+        }
+    }
+
+    private static final class PendingEntry {
+        private final String userId;
+        private final Long habitId;
+        private final String habitName;
+        private final LocalDate date;
+        private final Boolean completed;
+        private final String notes;
+        private final LocalDateTime acceptedAt;
+
+        PendingEntry(String userId, Long habitId, String habitName, LocalDate date, Boolean completed, String notes,
+                     LocalDateTime acceptedAt) {
+            this.userId = userId;
+            this.habitId = habitId;
+            this.habitName = habitName;
+            this.date = date;
+            this.completed = completed;
+            this.notes = notes;
+            this.acceptedAt = acceptedAt;
+        }
+
+        EntryKey key() {
+            return new EntryKey(habitId, date);
+        }
+
+        HabitEntryDTO toDTO(Long id, LocalDateTime createdAt) {
+            return new HabitEntryDTO(id, habitId, habitName, date, completed, notes, createdAt, acceptedAt);
+        }
+    }
+}
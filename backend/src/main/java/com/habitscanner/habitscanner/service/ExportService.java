@@ -0,0 +1,143 @@
+package com.habitscanner.habitscanner.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.model.Habit;
+import com.habitscanner.habitscanner.model.HistoryFormat;
+import com.habitscanner.habitscanner.repository.HabitEntryRepository;
+import com.habitscanner.habitscanner.repository.HabitRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's full history as it is read: rows come from forward-only database
+ * cursors and go straight to the output, so memory use does not depend on the size
+ * of the history.
+ */
+@Service
+public class ExportService {
+    
+    // Rows between flushes of the output and clears of the persistence context
+    private static final int CHUNK_SIZE = 1000;
+    
+    @Autowired
+    private HabitRepository habitRepository;
+    
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private HabitEntryService habitEntryService;
+    
+    @Transactional(readOnly = true)
+    public void export(String userId, HistoryFormat format, OutputStream out) throws IOException {
+        habitEntryService.flushBufferedEntries(userId);
+        if (format == HistoryFormat.NDJSON) {
+            writeNdjson(userId, out);
+        } else {
+            writeCsv(userId, out);
+        }
+    }
+    
+    private void writeNdjson(String userId, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        int rows = 0;
+        
+        try (Stream<Habit> habits = habitRepository.streamByUserId(userId)) {
+            for (Iterator<Habit> it = habits.iterator(); it.hasNext(); ) {
+                Habit habit = it.next();
+                generator.writeStartObject();
+                generator.writeStringField("type", "habit");
+                generator.writeStringField("name", habit.getName());
+                generator.writeStringField("description", habit.getDescription());
+                generator.writeStringField("startDate", habit.getStartDate().toString());
+                generator.writeStringField("frequency", habit.getFrequency() != null ? habit.getFrequency().name() : null);
+                generator.writeBooleanField("active", habit.getActive());
+                generator.writeEndObject();
+                
+                if (++rows % CHUNK_SIZE == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        
+        try (Stream<HabitEntryDTO> entries = habitEntryRepository.streamDTOsByUserId(userId)) {
+            for (Iterator<HabitEntryDTO> it = entries.iterator(); it.hasNext(); ) {
+                HabitEntryDTO entry = it.next();
+                generator.writeStartObject();
+                generator.writeStringField("type", "entry");
+                generator.writeStringField("habit", entry.getHabitName());
+                generator.writeStringField("date", entry.getDate().toString());
+                generator.writeBooleanField("completed", entry.getCompleted());
+                generator.writeStringField("notes", entry.getNotes());
+                generator.writeEndObject();
+                
+                if (++rows % CHUNK_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        
+        if (rows > 0) {
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+    
+    private void writeCsv(String userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("habit,date,completed,notes\n");
+        int rows = 0;
+        
+        try (Stream<HabitEntryDTO> entries = habitEntryRepository.streamDTOsByUserId(userId)) {
+            for (Iterator<HabitEntryDTO> it = entries.iterator(); it.hasNext(); ) {
+                HabitEntryDTO entry = it.next();
+                writer.write(csvField(entry.getHabitName()));
+                writer.write(',');
+                writer.write(entry.getDate().toString());
+                writer.write(',');
+                writer.write(String.valueOf(entry.getCompleted()));
+                writer.write(',');
+                writer.write(csvField(entry.getNotes()));
+                writer.write('\n');
+                
+                if (++rows % CHUNK_SIZE == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+    
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
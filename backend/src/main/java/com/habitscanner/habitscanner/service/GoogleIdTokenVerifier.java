@@ -0,0 +1,205 @@
+package com.habitscanner.habitscanner.service;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verifies signed Google ID tokens locally against a cached JWKS key set, so the
+ * request path does not need a tokeninfo round trip. Active when
+ * {@code habitscanner.auth.validation-mode=jwt}.
+ */
+@Component
+@ConditionalOnProperty(name = "habitscanner.auth.validation-mode", havingValue = "jwt")
+public class GoogleIdTokenVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleIdTokenVerifier.class);
+
+    private static final Set<String> GOOGLE_ISSUERS = Set.of("https://accounts.google.com", "accounts.google.com");
+
+    private final CachedJwkSource jwkSource;
+    private final NimbusJwtDecoder jwtDecoder;
+    private final ScheduledExecutorService refresher;
+
+    public GoogleIdTokenVerifier(@Value("${habitscanner.auth.jwt.jwks-uri:https://www.googleapis.com/oauth2/v3/certs}") String jwksUri,
+                                 @Value("${spring.security.oauth2.client.registration.google.client-id}") String clientId,
+                                 @Value("${habitscanner.auth.jwt.jwks-refresh-interval:PT1H}") Duration refreshInterval) {
+        this(jwksUri, clientId, refreshInterval, Duration.ofSeconds(30), GOOGLE_ISSUERS);
+    }
+
+    GoogleIdTokenVerifier(String jwksUri, String clientId, Duration refreshInterval, Duration minRefreshGap, Set<String> issuers) {
+        this.jwkSource = new CachedJwkSource(jwksUri, minRefreshGap);
+
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        // Claims are checked by the validators below
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {});
+
+        OAuth2TokenValidator<Jwt> validator = new DelegatingOAuth2TokenValidator<>(
+                new JwtTimestampValidator(),
+                new JwtClaimValidator<Object>(JwtClaimNames.ISS, iss -> iss != null && issuers.contains(iss.toString())),
+                new JwtClaimValidator<List<String>>(JwtClaimNames.AUD, aud -> aud != null && aud.contains(clientId)));
+
+        this.jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        this.jwtDecoder.setJwtValidator(validator);
+
+        // Keys rotate rarely; refresh in the background so verification never waits on the network
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = refreshInterval.toMillis();
+        this.refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns whether the token has the compact JWS shape this verifier can handle.
+     * Opaque access tokens do not, and must go through tokeninfo instead.
+     */
+    public boolean supports(String token) {
+        return token.chars().filter(c -> c == '.').count() == 2;
+    }
+
+    /**
+     * Verifies signature, issuer, audience and expiry of the token.
+     *
+     * @return the introspection result, or {@code null} if the token could not be
+     *         checked locally (for example because no signing keys are available yet)
+     */
+    public TokenIntrospection verify(String token) {
+        try {
+            Jwt jwt = jwtDecoder.decode(token);
+            return TokenIntrospection.valid(jwt.getSubject(), jwt.getClaimAsString("email"), jwt.getExpiresAt());
+        } catch (BadJwtException e) {
+            return TokenIntrospection.invalid();
+        } catch (JwtException e) {
+            logger.debug("Local ID token verification unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void refreshQuietly() {
+        try {
+            jwkSource.refresh();
+        } catch (Exception e) {
+            logger.warn("Could not refresh JWKS from {}: {}", jwkSource.jwksUri, e.getMessage());
+        }
+    }
+
+    /**
+     * Holds the last fetched key set. An unknown key id triggers at most one extra
+     * fetch per minimum refresh gap, which covers keys rotated between scheduled
+     * refreshes without letting forged key ids hammer the JWKS endpoint.
+     */
+    private static final class CachedJwkSource implements JWKSource<SecurityContext> {
+
+        private final String jwksUri;
+        private final Duration minRefreshGap;
+        private final RestTemplate restTemplate;
+        private final ReentrantLock refreshLock = new ReentrantLock();
+        private volatile JWKSet keySet;
+        private volatile Instant lastFetch = Instant.EPOCH;
+
+        CachedJwkSource(String jwksUri, Duration minRefreshGap) {
+            this.jwksUri = jwksUri;
+            this.minRefreshGap = minRefreshGap;
+            SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+            requestFactory.setConnectTimeout((int) Duration.ofSeconds(2).toMillis());
+            requestFactory.setReadTimeout((int) Duration.ofSeconds(5).toMillis());
+            this.restTemplate = new RestTemplate(requestFactory);
+        }
+
+        @Override
+        public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+            JWKSet current = keySet;
+            if (current != null) {
+                List<JWK> keys = jwkSelector.select(current);
+                if (!keys.isEmpty()) {
+                    return keys;
+                }
+            }
+            refreshLock.lock();
+            try {
+                // Another thread may have fetched a newer key set while we waited
+                if (keySet != current) {
+                    return jwkSelector.select(keySet);
+                }
+                if (!refreshDue()) {
+                    if (current == null) {
+                        throw new KeySourceException("JWK set from " + jwksUri + " not available");
+                    }
+                    return List.of();
+                }
+                try {
+                    return jwkSelector.select(fetch());
+                } catch (Exception e) {
+                    if (current != null) {
+                        return jwkSelector.select(current);
+                    }
+                    throw new KeySourceException("Couldn't retrieve JWK set from " + jwksUri, e);
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+
+        void refresh() throws Exception {
+            refreshLock.lock();
+            try {
+                fetch();
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+
+        private JWKSet fetch() throws Exception {
+            lastFetch = Instant.now();
+            String body = restTemplate.getForObject(jwksUri, String.class);
+            JWKSet fetched = JWKSet.parse(body);
+            keySet = fetched;
+            return fetched;
+        }
+
+        private boolean refreshDue() {
+            return Instant.now().isAfter(lastFetch.plus(minRefreshGap));
+        }
+    }
+}
@@ -1,16 +1,36 @@
 package com.habitscanner.habitscanner.service;
 
 import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.dto.HabitEntryPageDTO;
 import com.habitscanner.habitscanner.model.Habit;
 import com.habitscanner.habitscanner.model.HabitEntry;
+import com.habitscanner.habitscanner.repository.DeletedEntry;
 import com.habitscanner.habitscanner.repository.HabitRepository;
 import com.habitscanner.habitscanner.repository.HabitEntryRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,46 +42,93 @@ public class HabitEntryService {
     @Autowired
     private HabitRepository habitRepository;
     
-    public List<HabitEntryDTO> getEntriesByHabitId(Long habitId, String userId) {
-        Optional<Habit> habit = habitRepository.findById(habitId);
-        if (habit.isPresent() && habit.get().getUserId().equals(userId)) {
-            List<HabitEntry> entries = habitEntryRepository.findByHabitId(habitId);
-            return entries.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
-        }
-        return List.of();
+    @Autowired
+    private HabitStatisticsService habitStatisticsService;
+    
+    @Autowired
+    private UserDataVersions userDataVersions;
+    
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    // Present in write-behind mode only
+    @Autowired(required = false)
+    private EntryWriteBuffer entryWriteBuffer;
+    
+    @Value("${habitscanner.entries.page-size:100}")
+    private int defaultPageSize;
+    
+    @Value("${habitscanner.entries.max-page-size:1000}")
+    private int maxPageSize;
+    
+    /**
+     * One page of a habit's entries in (date, id) order.
+     *
+     * @param cursor {@code nextCursor} of the previous page, {@code null} for the first page
+     * @param limit page size, {@code null} for the configured default; capped at the configured maximum
+     * @return the page, or empty if the cursor or limit is invalid
+     */
+    public Optional<HabitEntryPageDTO> getEntriesByHabitId(Long habitId, String userId, String cursor, Integer limit) {
+        flushBufferedEntries(userId);
+        return page(cursor, limit,
+                pageLimit -> habitEntryRepository.findDTOsByHabitIdAndUserId(habitId, userId, pageLimit),
+                (position, pageLimit) -> habitEntryRepository.findDTOsByHabitIdAndUserIdAfter(
+                        habitId, userId, position.getDate(), position.getId(), pageLimit));
     }
     
+    @Transactional(readOnly = true)
     public List<HabitEntryDTO> getEntriesByUserIdAndDate(String userId, LocalDate date) {
-        List<HabitEntry> entries = habitEntryRepository.findByUserIdAndDate(userId, date);
-        return entries.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (entryWriteBuffer != null) {
+            return entryWriteBuffer.readThrough(userId, date, () -> habitEntryRepository.findDTOsByUserIdAndDate(userId, date));
+        }
+        return habitEntryRepository.findDTOsByUserIdAndDate(userId, date);
     }
     
-    public List<HabitEntryDTO> getEntriesByUserIdAndDateRange(String userId, LocalDate startDate, LocalDate endDate) {
-        List<HabitEntry> entries = habitEntryRepository.findByUserIdAndDateBetween(userId, startDate, endDate);
-        return entries.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    /**
+     * One page of the user's entries between two dates in (date, id) order.
+     *
+     * @see #getEntriesByHabitId(Long, String, String, Integer)
+     */
+    public Optional<HabitEntryPageDTO> getEntriesByUserIdAndDateRange(String userId, LocalDate startDate, LocalDate endDate,
+                                                                      String cursor, Integer limit) {
+        flushBufferedEntries(userId);
+        return page(cursor, limit,
+                pageLimit -> habitEntryRepository.findDTOsByUserIdAndDateBetween(userId, startDate, endDate, pageLimit),
+                (position, pageLimit) -> habitEntryRepository.findDTOsByUserIdAndDateBetweenAfter(
+                        userId, startDate, endDate, position.getDate(), position.getId(), pageLimit));
     }
     
+    @Transactional
     public Optional<HabitEntryDTO> createOrUpdateEntry(Long habitId, HabitEntryDTO entryDTO, String userId) {
-        Optional<Habit> habit = habitRepository.findById(habitId);
-        if (!habit.isPresent() || !habit.get().getUserId().equals(userId)) {
-            return Optional.empty();
+        if (entryWriteBuffer != null) {
+            // Acknowledged once journaled; written to the database by the next flush
+            Optional<HabitEntryDTO> accepted = habitRepository.findByIdAndUserId(habitId, userId)
+                    .map(habit -> entryWriteBuffer.accept(habit, entryDTO, userId));
+            accepted.ifPresent(entry -> userDataVersions.changed(userId));
+            return accepted;
         }
         
-        Optional<HabitEntry> existingEntry = habitEntryRepository.findByHabitIdAndDate(habitId, entryDTO.getDate());
+        // An existing entry comes with its habit and proves ownership; the habit is only
+        // looked up on its own when the day has no entry yet
+        Optional<HabitEntry> existingEntry = habitEntryRepository.findByHabitIdAndUserIdAndDate(habitId, userId, entryDTO.getDate());
         
         HabitEntry entry;
+        Boolean previousCompleted = null;
         if (existingEntry.isPresent()) {
             // Update existing entry
             entry = existingEntry.get();
+            previousCompleted = entry.getCompleted();
             entry.setCompleted(entryDTO.getCompleted());
             entry.setNotes(entryDTO.getNotes());
         } else {
+            Optional<Habit> habit = habitRepository.findByIdAndUserId(habitId, userId);
+            if (habit.isEmpty()) {
+                return Optional.empty();
+            }
+            
             // Create new entry
             entry = new HabitEntry(
                 habit.get(),
@@ -72,20 +139,187 @@ public class HabitEntryService {
         }
         
         HabitEntry savedEntry = habitEntryRepository.save(entry);
+        habitStatisticsService.recordEntryChange(habitId, savedEntry.getDate(), previousCompleted, savedEntry.getCompleted());
+        userDataVersions.changed(userId);
         return Optional.of(convertToDTO(savedEntry));
     }
     
+    /**
+     * Creates or updates many entries at once. Ownership is checked once per habit and
+     * existing entries are looked up in a single query, so the writes are flushed as
+     * JDBC batches instead of one round trip per entry.
+     *
+     * @return the saved entries, or empty if an item lacks a habit or date or names a
+     *         habit the user does not own
+     */
+    @Transactional
+    public Optional<List<HabitEntryDTO>> createOrUpdateEntries(List<HabitEntryDTO> entryDTOs, String userId) {
+        Optional<List<HabitEntryDTO>> saved = upsertEntries(entryDTOs, userId);
+        if (saved.isPresent() && entryWriteBuffer != null) {
+            // Written after any check-in still buffered for the same days, so it wins
+            discardBufferedAfterCommit(entryDTOs.stream().collect(Collectors.groupingBy(HabitEntryDTO::getHabitId,
+                    Collectors.mapping(HabitEntryDTO::getDate, Collectors.toSet()))));
+        }
+        return saved;
+    }
+    
+    /**
+     * Writes check-ins flushed from the {@link EntryWriteBuffer}, like
+     * {@link #createOrUpdateEntries(List, String)} but without discarding buffered ones.
+     * Commits on its own, as reads flush from inside their transactions.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<List<HabitEntryDTO>> applyBufferedEntries(List<HabitEntryDTO> entryDTOs, String userId) {
+        return upsertEntries(entryDTOs, userId);
+    }
+    
+    /**
+     * Writes check-ins still held by the {@link EntryWriteBuffer} for the user, so a read
+     * made next sees them. Each write takes a transaction of its own, so it may be called
+     * from inside the read's.
+     */
+    public void flushBufferedEntries(String userId) {
+        if (entryWriteBuffer != null && entryWriteBuffer.hasPending(userId)) {
+            entryWriteBuffer.flush(userId);
+        }
+    }
+    
+    /**
+     * Drops the check-ins buffered for these days once the current transaction commits;
+     * if it rolls back they are still written by the next flush.
+     */
+    private void discardBufferedAfterCommit(Map<Long, Set<LocalDate>> datesByHabitId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                datesByHabitId.forEach(entryWriteBuffer::discard);
+            }
+        });
+    }
+    
+    private Optional<List<HabitEntryDTO>> upsertEntries(List<HabitEntryDTO> entryDTOs, String userId) {
+        if (entryDTOs.isEmpty()) {
+            return Optional.of(List.of());
+        }
+        if (entryDTOs.stream().anyMatch(dto -> dto.getHabitId() == null || dto.getDate() == null)) {
+            return Optional.empty();
+        }
+        
+        Set<Long> habitIds = entryDTOs.stream().map(HabitEntryDTO::getHabitId).collect(Collectors.toSet());
+        // Looked up in the second-level cache first; only the misses are queried, together
+        Map<Long, Habit> habits = entityManager.unwrap(Session.class).byMultipleIds(Habit.class)
+                .with(CacheMode.NORMAL)
+                .multiLoad(new ArrayList<>(habitIds)).stream()
+                .filter(Objects::nonNull)
+                .filter(habit -> habit.getUserId().equals(userId))
+                .collect(Collectors.toMap(Habit::getId, Function.identity()));
+        if (habits.size() != habitIds.size()) {
+            return Optional.empty();
+        }
+        
+        // Only the days the batch writes, one query per habit; the span between its first
+        // and last day may hold years of entries it does not touch
+        Map<Long, Set<LocalDate>> datesByHabitId = entryDTOs.stream().collect(Collectors.groupingBy(HabitEntryDTO::getHabitId,
+                Collectors.mapping(HabitEntryDTO::getDate, Collectors.toSet())));
+        Map<Long, Map<LocalDate, HabitEntry>> entriesByHabitId = new HashMap<>();
+        datesByHabitId.forEach((habitId, dates) -> {
+            for (HabitEntry entry : habitEntryRepository.findByHabitIdAndDateIn(habitId, dates)) {
+                entriesByHabitId.computeIfAbsent(habitId, id -> new HashMap<>()).put(entry.getDate(), entry);
+            }
+        });
+        
+        // Completion of each touched entry before this batch; later items for the same
+        // habit and day overwrite earlier ones
+        Map<Long, Map<LocalDate, Boolean>> previousByHabitId = new LinkedHashMap<>();
+        Set<HabitEntry> written = new LinkedHashSet<>();
+        for (HabitEntryDTO entryDTO : entryDTOs) {
+            Map<LocalDate, HabitEntry> habitEntries = entriesByHabitId.computeIfAbsent(entryDTO.getHabitId(), id -> new HashMap<>());
+            Map<LocalDate, Boolean> previous = previousByHabitId.computeIfAbsent(entryDTO.getHabitId(), id -> new LinkedHashMap<>());
+            HabitEntry entry = habitEntries.get(entryDTO.getDate());
+            
+            if (!previous.containsKey(entryDTO.getDate())) {
+                previous.put(entryDTO.getDate(), entry != null ? entry.getCompleted() : null);
+            }
+            
+            if (entry != null) {
+                entry.setCompleted(entryDTO.getCompleted());
+                entry.setNotes(entryDTO.getNotes());
+            } else {
+                entry = new HabitEntry(
+                    habits.get(entryDTO.getHabitId()),
+                    entryDTO.getDate(),
+                    entryDTO.getCompleted(),
+                    entryDTO.getNotes()
+                );
+                habitEntries.put(entry.getDate(), entry);
+            }
+            written.add(entry);
+        }
+        
+        List<HabitEntry> savedEntries = habitEntryRepository.saveAll(written);
+        
+        for (Map.Entry<Long, Map<LocalDate, Boolean>> habitChanges : previousByHabitId.entrySet()) {
+            Map<LocalDate, HabitEntry> habitEntries = entriesByHabitId.get(habitChanges.getKey());
+            List<HabitStatisticsService.EntryChange> changes = new ArrayList<>();
+            habitChanges.getValue().forEach((date, previousCompleted) -> changes.add(
+                new HabitStatisticsService.EntryChange(date, previousCompleted, habitEntries.get(date).getCompleted())
+            ));
+            habitStatisticsService.recordEntryChanges(habitChanges.getKey(), changes);
+        }
+        userDataVersions.changed(userId);
+        
+        return Optional.of(savedEntries.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList()));
+    }
+    
+    @Transactional
     public boolean deleteEntry(Long entryId, String userId) {
-        Optional<HabitEntry> entry = habitEntryRepository.findById(entryId);
-        if (entry.isPresent() && entry.get().getHabit().getUserId().equals(userId)) {
-            habitEntryRepository.delete(entry.get());
-            return true;
+        // One statement, which also returns the day and completion the statistics need
+        Optional<DeletedEntry> entry = habitEntryRepository.deleteByIdAndUserId(entryId, userId);
+        if (entry.isEmpty()) {
+            return false;
+        }
+        
+        if (entryWriteBuffer != null) {
+            discardBufferedAfterCommit(Map.of(entry.get().getHabitId(), Set.of(entry.get().getDate())));
         }
-        return false;
+        habitStatisticsService.recordEntryChange(entry.get().getHabitId(), entry.get().getDate(), entry.get().getCompleted(), null);
+        userDataVersions.changed(userId);
+        return true;
     }
     
     public Long getCompletedEntriesCount(String userId, LocalDate startDate, LocalDate endDate) {
-        return habitEntryRepository.countCompletedEntriesByUserIdAndDateBetween(userId, startDate, endDate);
+        flushBufferedEntries(userId);
+        return monthlyRollupService.countCompletedEntries(userId, startDate, endDate);
+    }
+    
+    private Optional<HabitEntryPageDTO> page(String cursor, Integer limit,
+                                             Function<Limit, List<HabitEntryDTO>> firstPage,
+                                             BiFunction<EntryCursor, Limit, List<HabitEntryDTO>> nextPage) {
+        if (limit != null && limit < 1) {
+            return Optional.empty();
+        }
+        int pageSize = Math.min(limit != null ? limit : defaultPageSize, maxPageSize);
+        
+        // One row past the page tells whether another page follows
+        List<HabitEntryDTO> entries;
+        if (cursor == null) {
+            entries = firstPage.apply(Limit.of(pageSize + 1));
+        } else {
+            Optional<EntryCursor> position = EntryCursor.decode(cursor);
+            if (position.isEmpty()) {
+                return Optional.empty();
+            }
+            entries = nextPage.apply(position.get(), Limit.of(pageSize + 1));
+        }
+        
+        if (entries.size() <= pageSize) {
+            return Optional.of(new HabitEntryPageDTO(entries, null));
+        }
+        List<HabitEntryDTO> page = new ArrayList<>(entries.subList(0, pageSize));
+        HabitEntryDTO last = page.get(pageSize - 1);
+        return Optional.of(new HabitEntryPageDTO(page, new EntryCursor(last.getDate(), last.getId()).encode()));
     }
     
     private HabitEntryDTO convertToDTO(HabitEntry entry) {
@@ -2,14 +2,11 @@ package com.habitscanner.habitscanner.service;
 
 import com.habitscanner.habitscanner.dto.HabitDTO;
 import com.habitscanner.habitscanner.model.Habit;
-import com.habitscanner.habitscanner.model.HabitEntry;
 import com.habitscanner.habitscanner.repository.HabitRepository;
-import com.habitscanner.habitscanner.repository.HabitEntryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -21,23 +18,33 @@ public class HabitService {
     private HabitRepository habitRepository;
     
     @Autowired
-    private HabitEntryRepository habitEntryRepository;
+    private HabitStatisticsService habitStatisticsService;
     
+    @Autowired
+    private UserDataVersions userDataVersions;
+    
+    @Autowired
+    private HabitEntryService habitEntryService;
+    
+    @Transactional(readOnly = true)
     public List<HabitDTO> getAllHabitsByUserId(String userId) {
+        // The statistics include check-ins still buffered in write-behind mode
+        habitEntryService.flushBufferedEntries(userId);
         List<Habit> habits = habitRepository.findActiveHabitsByUserIdOrderByCreatedAtDesc(userId);
-        return habits.stream()
-                .map(this::convertToDTO)
+        List<HabitDTO> dtos = habits.stream()
+                .map(this::toDTO)
                 .collect(Collectors.toList());
+        // Statistics for all habits in one batch instead of per habit
+        habitStatisticsService.fillStatistics(dtos);
+        return dtos;
     }
     
+    @Transactional(readOnly = true)
     public Optional<HabitDTO> getHabitById(Long id, String userId) {
-        Optional<Habit> habit = habitRepository.findById(id);
-        if (habit.isPresent() && habit.get().getUserId().equals(userId)) {
-            return Optional.of(convertToDTO(habit.get()));
-        }
-        return Optional.empty();
+        return habitRepository.findByIdAndUserId(id, userId).map(this::convertToDTO);
     }
     
+    @Transactional
     public HabitDTO createHabit(HabitDTO habitDTO) {
         Habit habit = new Habit(
             habitDTO.getName(),
@@ -48,13 +55,16 @@ public class HabitService {
         );
         
         Habit savedHabit = habitRepository.save(habit);
+        habitStatisticsService.initialize(savedHabit.getId());
+        userDataVersions.changed(savedHabit.getUserId());
         return convertToDTO(savedHabit);
     }
     
+    @Transactional
     public Optional<HabitDTO> updateHabit(Long id, HabitDTO habitDTO, String userId) {
-        Optional<Habit> existingHabit = habitRepository.findById(id);
+        Optional<Habit> existingHabit = habitRepository.findByIdAndUserId(id, userId);
         
-        if (existingHabit.isPresent() && existingHabit.get().getUserId().equals(userId)) {
+        if (existingHabit.isPresent()) {
             Habit habit = existingHabit.get();
             habit.setName(habitDTO.getName());
             habit.setDescription(habitDTO.getDescription());
@@ -62,28 +72,40 @@ public class HabitService {
             habit.setActive(habitDTO.getActive());
             
             Habit updatedHabit = habitRepository.save(habit);
+            userDataVersions.changed(userId);
             return Optional.of(convertToDTO(updatedHabit));
         }
         
         return Optional.empty();
     }
     
+    @Transactional
     public boolean deleteHabit(Long id, String userId) {
-        Optional<Habit> habit = habitRepository.findById(id);
-        if (habit.isPresent() && habit.get().getUserId().equals(userId)) {
-            habit.get().setActive(false);
-            habitRepository.save(habit.get());
-            return true;
+        if (!habitRepository.existsByIdAndUserId(id, userId)) {
+            return false;
         }
-        return false;
+        
+        // Loaded by id, so from the second-level cache, whose entry the update then
+        // replaces; a bulk UPDATE would evict the whole region
+        Habit habit = habitRepository.getReferenceById(id);
+        habit.setActive(false);
+        userDataVersions.changed(userId);
+        return true;
     }
     
+    @Transactional(readOnly = true)
     public Long getActiveHabitsCount(String userId) {
         return habitRepository.countActiveHabitsByUserId(userId);
     }
     
     private HabitDTO convertToDTO(Habit habit) {
-        HabitDTO dto = new HabitDTO(
+        HabitDTO dto = toDTO(habit);
+        habitStatisticsService.fillStatistics(dto);
+        return dto;
+    }
+    
+    private HabitDTO toDTO(Habit habit) {
+        return new HabitDTO(
             habit.getId(),
             habit.getName(),
             habit.getDescription(),
@@ -94,76 +116,5 @@ public class HabitService {
             habit.getFrequency(),
             habit.getActive()
         );
-        
-        // Calculate statistics
-        dto.setCurrentStreak(calculateCurrentStreak(habit));
-        dto.setLongestStreak(calculateLongestStreak(habit));
-        dto.setCompletionRate(calculateCompletionRate(habit));
-        
-        return dto;
-    }
-    
-    private Integer calculateCurrentStreak(Habit habit) {
-        List<HabitEntry> entries = habitEntryRepository.findByHabitId(habit.getId());
-        if (entries.isEmpty()) return 0;
-        
-        // Sort entries by date descending
-        entries.sort((a, b) -> b.getDate().compareTo(a.getDate()));
-        
-        int streak = 0;
-        LocalDate currentDate = LocalDate.now();
-        
-        for (HabitEntry entry : entries) {
-            if (entry.getDate().equals(currentDate) && entry.getCompleted()) {
-                streak++;
-                currentDate = currentDate.minusDays(1);
-            } else if (entry.getDate().equals(currentDate) && !entry.getCompleted()) {
-                break;
-            } else if (entry.getDate().isBefore(currentDate)) {
-                break;
-            }
-        }
-        
-        return streak;
-    }
-    
-    private Integer calculateLongestStreak(Habit habit) {
-        List<HabitEntry> entries = habitEntryRepository.findByHabitId(habit.getId());
-        if (entries.isEmpty()) return 0;
-        
-        // Sort entries by date ascending
-        entries.sort((a, b) -> a.getDate().compareTo(b.getDate()));
-        
-        int longestStreak = 0;
-        int currentStreak = 0;
-        LocalDate previousDate = null;
-        
-        for (HabitEntry entry : entries) {
-            if (entry.getCompleted()) {
-                if (previousDate == null || entry.getDate().equals(previousDate.plusDays(1))) {
-                    currentStreak++;
-                } else {
-                    currentStreak = 1;
-                }
-                longestStreak = Math.max(longestStreak, currentStreak);
-            } else {
-                currentStreak = 0;
-            }
-            previousDate = entry.getDate();
-        }
-        
-        return longestStreak;
-    }
-    
-    private Double calculateCompletionRate(Habit habit) {
-        List<HabitEntry> entries = habitEntryRepository.findByHabitId(habit.getId());
-        if (entries.isEmpty()) return 0.0;
-        
-        long completedEntries = entries.stream()
-                .mapToLong(entry -> entry.getCompleted() ? 1 : 0)
-                .sum();
-        
-        return (double) completedEntries / entries.size() * 100;
     }
 }
-
@@ -0,0 +1,80 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.model.HabitEntry;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Full-scan statistics over a habit's complete entry history. This is the
+ * reference computation the stored {@code HabitStatistics} summary must agree with.
+ */
+public final class HabitStatisticsCalculator {
+    
+    private HabitStatisticsCalculator() {}
+    
+    public static int calculateCurrentStreak(List<HabitEntry> entries, LocalDate today) {
+        if (entries.isEmpty()) return 0;
+        
+        // Sort entries by date descending
+        entries.sort((a, b) -> b.getDate().compareTo(a.getDate()));
+        
+        int streak = 0;
+        LocalDate currentDate = today;
+        
+        for (HabitEntry entry : entries) {
+            if (entry.getDate().equals(currentDate) && entry.getCompleted()) {
+                streak++;
+                currentDate = currentDate.minusDays(1);
+            } else if (entry.getDate().equals(currentDate) && !entry.getCompleted()) {
+                break;
+            } else if (entry.getDate().isBefore(currentDate)) {
+                break;
+            }
+        }
+        
+        return streak;
+    }
+    
+    public static int calculateLongestStreak(List<HabitEntry> entries) {
+        if (entries.isEmpty()) return 0;
+        
+        // Sort entries by date ascending
+        entries.sort((a, b) -> a.getDate().compareTo(b.getDate()));
+        
+        int longestStreak = 0;
+        int currentStreak = 0;
+        LocalDate previousDate = null;
+        
+        for (HabitEntry entry : entries) {
+            if (entry.getCompleted()) {
+                if (previousDate == null || entry.getDate().equals(previousDate.plusDays(1))) {
+                    currentStreak++;
+                } else {
+                    currentStreak = 1;
+                }
+                longestStreak = Math.max(longestStreak, currentStreak);
+            } else {
+                currentStreak = 0;
+            }
+            previousDate = entry.getDate();
+        }
+        
+        return longestStreak;
+    }
+    
+    public static double calculateCompletionRate(List<HabitEntry> entries) {
+        if (entries.isEmpty()) return 0.0;
+        
+        long completedEntries = entries.stream()
+                .mapToLong(entry -> entry.getCompleted() ? 1 : 0)
+                .sum();
+        
+        return completionRate(completedEntries, entries.size());
+    }
+    
+    public static double completionRate(long completedEntries, long totalEntries) {
+        if (totalEntries == 0) return 0.0;
+        return (double) completedEntries / totalEntries * 100;
+    }
+}
@@ -0,0 +1,337 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.model.Habit;
+import com.habitscanner.habitscanner.model.HabitEntry;
+import com.habitscanner.habitscanner.model.HabitStatistics;
+import com.habitscanner.habitscanner.repository.HabitEntryRepository;
+import com.habitscanner.habitscanner.repository.HabitRepository;
+import com.habitscanner.habitscanner.repository.HabitStatisticsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the per-habit {@link HabitStatistics} summary. Entry writes update it in
+ * their own transaction, so reads are a primary key lookup regardless of how long
+ * the habit's history is.
+ */
+@Service
+public class HabitStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HabitStatisticsService.class);
+
+    @Autowired
+    private HabitStatisticsRepository habitStatisticsRepository;
+
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private CompletionTimelineCache completionTimelineCache;
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Value("${habitscanner.statistics.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    @Value("${habitscanner.statistics.verify-on-startup:false}")
+    private boolean verifyOnStartup;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public HabitStatisticsService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Creates the empty summary of a newly created habit.
+     */
+    @Transactional
+    public void initialize(Long habitId) {
+        habitStatisticsRepository.save(new HabitStatistics(habitId));
+    }
+
+    /**
+     * Applies one entry write to the habit's summary. Must be called in the transaction
+     * of the write, after the entry has been saved or deleted.
+     *
+     * @param date day of the entry
+     * @param previousCompleted completion of the entry before the write, {@code null} if it did not exist
+     * @param newCompleted completion of the entry after the write, {@code null} if it was deleted
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordEntryChange(Long habitId, LocalDate date, Boolean previousCompleted, Boolean newCompleted) {
+        recordEntryChanges(habitId, List.of(new EntryChange(date, previousCompleted, newCompleted)));
+    }
+
+    /**
+     * Applies several entry writes of one habit to its summary, locking it and
+     * recomputing streaks once for all of them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordEntryChanges(Long habitId, List<EntryChange> changes) {
+        Optional<HabitStatistics> existing = habitStatisticsRepository.findByHabitIdForUpdate(habitId);
+        if (existing.isEmpty()) {
+            // No summary row to lock yet: the habit's row serializes first writes, so only
+            // one of them inserts the summary and the others find it once it commits
+            habitRepository.findByIdForUpdate(habitId);
+            existing = habitStatisticsRepository.findByHabitIdForUpdate(habitId);
+        }
+        for (EntryChange change : changes) {
+            completionTimelineCache.update(habitId, change.getDate(), Boolean.TRUE.equals(change.getNewCompleted()));
+        }
+        if (existing.isEmpty()) {
+            // Summary predates this write path; the rebuild already sees the new entries
+            rebuild(habitId);
+            return;
+        }
+        // Under the summary's lock, so concurrent writes to a habit update its rollups in turn
+        monthlyRollupService.recordEntryChanges(habitId, changes);
+
+        HabitStatistics stats = existing.get();
+        int totalEntries = stats.getTotalEntries();
+        int completedEntries = stats.getCompletedEntries();
+        boolean streaksMoved = false;
+
+        for (EntryChange change : changes) {
+            boolean wasCompleted = Boolean.TRUE.equals(change.getPreviousCompleted());
+            boolean isCompleted = Boolean.TRUE.equals(change.getNewCompleted());
+
+            totalEntries += (change.getNewCompleted() != null ? 1 : 0) - (change.getPreviousCompleted() != null ? 1 : 0);
+            completedEntries += (isCompleted ? 1 : 0) - (wasCompleted ? 1 : 0);
+
+            // Notes-only edits and writes of uncompleted days cannot move a streak
+            streaksMoved |= wasCompleted != isCompleted;
+        }
+
+        stats.setTotalEntries(totalEntries);
+        stats.setCompletedEntries(completedEntries);
+        if (streaksMoved) {
+            refreshStreaks(stats);
+        }
+
+        habitStatisticsRepository.save(stats);
+    }
+
+    /**
+     * Recomputes a habit's summary and monthly rollups from its entries.
+     */
+    @Transactional
+    public HabitStatistics rebuild(Long habitId) {
+        completionTimelineCache.invalidate(habitId);
+        monthlyRollupService.rebuild(habitId);
+        HabitStatistics stats = habitStatisticsRepository.findById(habitId)
+                .orElseGet(() -> new HabitStatistics(habitId));
+        stats.setTotalEntries((int) habitEntryRepository.countByHabitId(habitId));
+        stats.setCompletedEntries((int) habitEntryRepository.countByHabitIdAndCompletedTrue(habitId));
+        refreshStreaks(stats);
+        return habitStatisticsRepository.save(stats);
+    }
+
+    /**
+     * Builds summaries for every habit that does not have one yet.
+     *
+     * @return the number of summaries built
+     */
+    public int rebuildMissing() {
+        List<Long> habitIds = habitStatisticsRepository.findHabitIdsWithoutStatistics();
+        habitIds.forEach(this::rebuildInOwnTransaction);
+        return habitIds.size();
+    }
+
+    /**
+     * Compares the stored summary against the full-scan computation over all entries.
+     */
+    @Transactional(readOnly = true)
+    public boolean isConsistent(Long habitId) {
+        Optional<HabitStatistics> stored = habitStatisticsRepository.findById(habitId);
+        if (stored.isEmpty()) {
+            return false;
+        }
+
+        HabitStatistics stats = stored.get();
+        LocalDate today = LocalDate.now();
+        List<HabitEntry> entries = habitEntryRepository.findByHabitId(habitId);
+        long completed = entries.stream().filter(HabitEntry::getCompleted).count();
+
+        boolean consistent = stats.getTotalEntries() == entries.size()
+                && stats.getCompletedEntries() == completed
+                && stats.getLongestStreak() == HabitStatisticsCalculator.calculateLongestStreak(new ArrayList<>(entries))
+                && currentStreak(stats, today) == HabitStatisticsCalculator.calculateCurrentStreak(new ArrayList<>(entries), today);
+
+        if (!consistent) {
+            logger.warn("Statistics summary of habit {} disagrees with its entries", habitId);
+        }
+        return consistent;
+    }
+
+    /**
+     * @return ids of habits whose summary is missing or disagrees with their entries
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findInconsistentHabitIds() {
+        List<Long> inconsistent = new ArrayList<>();
+        for (Habit habit : habitRepository.findAll()) {
+            if (!isConsistent(habit.getId())) {
+                inconsistent.add(habit.getId());
+            }
+        }
+        return inconsistent;
+    }
+
+    /**
+     * Fills current streak, longest streak and completion rate of the DTO.
+     */
+    public void fillStatistics(HabitDTO dto) {
+        LocalDate today = LocalDate.now();
+        Optional<HabitStatistics> stats = habitStatisticsRepository.findById(dto.getId());
+
+        if (stats.isPresent()) {
+            applyTo(dto, stats.get(), today);
+        } else {
+            fillFromEntries(dto, habitEntryRepository.findByHabitId(dto.getId()), today);
+        }
+    }
+
+    /**
+     * Fills statistics of many DTOs at once: one query for their summaries and, only if
+     * some habits have no summary yet, one query for those habits' entries.
+     */
+    public void fillStatistics(List<HabitDTO> dtos) {
+        if (dtos.isEmpty()) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        List<Long> habitIds = dtos.stream().map(HabitDTO::getId).collect(Collectors.toList());
+        Map<Long, HabitStatistics> statsByHabitId = habitStatisticsRepository.findAllById(habitIds).stream()
+                .collect(Collectors.toMap(HabitStatistics::getHabitId, Function.identity()));
+
+        List<HabitDTO> unanswered = new ArrayList<>();
+        for (HabitDTO dto : dtos) {
+            HabitStatistics stats = statsByHabitId.get(dto.getId());
+            if (stats != null) {
+                applyTo(dto, stats, today);
+            } else {
+                unanswered.add(dto);
+            }
+        }
+
+        if (!unanswered.isEmpty()) {
+            List<Long> unansweredIds = unanswered.stream().map(HabitDTO::getId).collect(Collectors.toList());
+            Map<Long, List<HabitEntry>> entriesByHabitId = habitEntryRepository.findByHabitIdIn(unansweredIds).stream()
+                    .collect(Collectors.groupingBy(entry -> entry.getHabit().getId()));
+            for (HabitDTO dto : unanswered) {
+                fillFromEntries(dto, entriesByHabitId.getOrDefault(dto.getId(), new ArrayList<>()), today);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (rebuildOnStartup) {
+            int rebuilt = rebuildMissing();
+            if (rebuilt > 0) {
+                logger.info("Built statistics summaries for {} habits", rebuilt);
+            }
+        }
+        if (verifyOnStartup) {
+            List<Long> inconsistent = findInconsistentHabitIds();
+            if (!inconsistent.isEmpty()) {
+                logger.warn("Rebuilding {} inconsistent statistics summaries", inconsistent.size());
+                inconsistent.forEach(this::rebuildInOwnTransaction);
+            }
+        }
+    }
+
+    // A call on this, so @Transactional on rebuild would not apply
+    private void rebuildInOwnTransaction(Long habitId) {
+        transactionTemplate.executeWithoutResult(status -> rebuild(habitId));
+    }
+
+    private void applyTo(HabitDTO dto, HabitStatistics stats, LocalDate today) {
+        dto.setCurrentStreak(currentStreak(stats, today));
+        dto.setLongestStreak(stats.getLongestStreak());
+        dto.setCompletionRate(HabitStatisticsCalculator.completionRate(stats.getCompletedEntries(), stats.getTotalEntries()));
+    }
+
+    private void fillFromEntries(HabitDTO dto, List<HabitEntry> entries, LocalDate today) {
+        List<LocalDate> completedDates = entries.stream()
+                .filter(HabitEntry::getCompleted)
+                .map(HabitEntry::getDate)
+                .collect(Collectors.toList());
+        CompletionTimeline timeline = CompletionTimeline.of(completedDates);
+
+        dto.setCurrentStreak(timeline.streakEndingAt(today));
+        dto.setLongestStreak(timeline.longestStreak());
+        dto.setCompletionRate(HabitStatisticsCalculator.completionRate(completedDates.size(), entries.size()));
+    }
+
+    private void refreshStreaks(HabitStatistics stats) {
+        CompletionTimeline timeline = completionTimelineCache.get(stats.getHabitId());
+        LocalDate lastCompleted = timeline.lastCompletedDate();
+
+        stats.setLongestStreak(timeline.longestStreak());
+        stats.setLastStreakEnd(lastCompleted);
+        stats.setLastStreakLength(lastCompleted != null ? timeline.streakEndingAt(lastCompleted) : 0);
+    }
+
+    // The summary knows the streak ending on the most recent completed day. Only when a
+    // completed entry is dated after today does the timeline have to answer instead.
+    private int currentStreak(HabitStatistics stats, LocalDate today) {
+        LocalDate lastStreakEnd = stats.getLastStreakEnd();
+        if (lastStreakEnd != null && lastStreakEnd.isAfter(today)) {
+            return completionTimelineCache.get(stats.getHabitId()).streakEndingAt(today);
+        }
+        return today.equals(lastStreakEnd) ? stats.getLastStreakLength() : 0;
+    }
+
+    /**
+     * One entry write: completion before and after, {@code null} where the entry did
+     * not exist.
+     */
+    public static final class EntryChange {
+        private final LocalDate date;
+        private final Boolean previousCompleted;
+        private final Boolean newCompleted;
+
+        public EntryChange(LocalDate date, Boolean previousCompleted, Boolean newCompleted) {
+            this.date = date;
+            this.previousCompleted = previousCompleted;
+            this.newCompleted = newCompleted;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public Boolean getPreviousCompleted() {
+            return previousCompleted;
+        }
+
+        public Boolean getNewCompleted() {
+            return newCompleted;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.habitscanner.habitscanner.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.dto.ImportJobDTO;
+import com.habitscanner.habitscanner.model.Habit;
+import com.habitscanner.habitscanner.model.HabitFrequency;
+import com.habitscanner.habitscanner.model.HistoryFormat;
+import com.habitscanner.habitscanner.model.ImportJob;
+import com.habitscanner.habitscanner.model.ImportStatus;
+import com.habitscanner.habitscanner.repository.HabitRepository;
+import com.habitscanner.habitscanner.repository.ImportJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Imports a history file in the {@link HistoryFormat} that {@link ExportService} writes.
+ *
+ * <p>The file is parsed as it arrives and entries are upserted in batches of a fixed
+ * size, each batch in its own transaction. The next batch is only read once the
+ * previous one has committed, so a fast client is held back by the database rather
+ * than buffered in memory. Habits are matched by name and created when missing.
+ *
+ * <p>A job takes one upload at a time. Uploads in progress are tracked in memory: a job
+ * stored as {@code RUNNING} that no upload of this process is writing was left so by
+ * an earlier run and may be resumed. Like {@link UserDataVersions}, this assumes a
+ * single instance.
+ */
+@Service
+public class ImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
+    
+    @Autowired
+    private HabitRepository habitRepository;
+    
+    @Autowired
+    private ImportJobRepository importJobRepository;
+    
+    @Autowired
+    private HabitService habitService;
+    
+    @Autowired
+    private HabitEntryService habitEntryService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    // Ids of the jobs an upload is writing to
+    private final Set<Long> uploading = ConcurrentHashMap.newKeySet();
+    
+    @Value("${habitscanner.import.batch-size:500}")
+    private int batchSize;
+    
+    public ImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    public Optional<ImportJobDTO> getJob(Long jobId, String userId) {
+        return importJobRepository.findByIdAndUserId(jobId, userId).map(this::convertToDTO);
+    }
+    
+    /**
+     * Creates a job for an import the user is about to upload. Its id is known before
+     * any data is sent, so its progress can be followed and a dropped upload resumed.
+     */
+    public ImportJobDTO createJob(String userId, HistoryFormat format) {
+        return convertToDTO(importJobRepository.save(new ImportJob(userId, format)));
+    }
+    
+    /**
+     * Imports the file into the job, after the rows an earlier upload of the same file
+     * already committed.
+     *
+     * @return the finished job, failed or completed; the job as it is, still
+     *         {@code RUNNING}, if another upload is writing to it; empty if the job does
+     *         not exist, belongs to another user or has completed
+     */
+    public Optional<ImportJobDTO> importHistory(String userId, Long jobId, InputStream in) {
+        if (!uploading.add(jobId)) {
+            return getJob(jobId, userId);
+        }
+        try {
+            return importClaimed(userId, jobId, in);
+        } finally {
+            uploading.remove(jobId);
+        }
+    }
+    
+    private Optional<ImportJobDTO> importClaimed(String userId, Long jobId, InputStream in) {
+        // Progress is read from the primary database, a replica may not have the last batch yet
+        Optional<ImportJob> existing = transactionTemplate.execute(
+                status -> importJobRepository.findByIdAndUserId(jobId, userId));
+        if (existing.isEmpty() || existing.get().getStatus() == ImportStatus.COMPLETED) {
+            return Optional.empty();
+        }
+        ImportJob job = existing.get();
+        HistoryFormat format = job.getFormat();
+        job.setStatus(ImportStatus.RUNNING);
+        job.setError(null);
+        job = importJobRepository.save(job);
+        
+        Batch batch = new Batch(job);
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            if (format == HistoryFormat.NDJSON) {
+                readNdjson(reader, batch);
+            } else {
+                readCsv(reader, batch);
+            }
+            batch.commit();
+            job.setStatus(ImportStatus.COMPLETED);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Import {} failed after {} committed rows: {}", job.getId(), job.getRowsCommitted(), e.getMessage());
+            job.setStatus(ImportStatus.FAILED);
+            job.setError(truncate(e.getMessage()));
+        }
+        
+        return Optional.of(convertToDTO(importJobRepository.save(job)));
+    }
+    
+    private void readNdjson(BufferedReader reader, Batch batch) throws IOException {
+        try (MappingIterator<JsonNode> rows = objectMapper.readerFor(JsonNode.class).readValues(reader)) {
+            while (rows.hasNextValue()) {
+                JsonNode row = rows.nextValue();
+                if (batch.skip()) {
+                    continue;
+                }
+                
+                String type = row.path("type").asText();
+                if (type.equals("habit")) {
+                    HabitDTO habit = new HabitDTO();
+                    habit.setName(requireText(row, "name", batch));
+                    habit.setDescription(row.hasNonNull("description") ? row.get("description").asText() : null);
+                    habit.setStartDate(row.hasNonNull("startDate") ? parseDate(row.get("startDate").asText(), batch) : null);
+                    habit.setFrequency(row.hasNonNull("frequency") ? parseFrequency(row.get("frequency").asText(), batch) : null);
+                    habit.setActive(!row.hasNonNull("active") || row.get("active").asBoolean());
+                    batch.resolveHabit(habit);
+                } else if (type.equals("entry")) {
+                    batch.add(
+                        requireText(row, "habit", batch),
+                        parseDate(requireText(row, "date", batch), batch),
+                        row.path("completed").asBoolean(false),
+                        row.hasNonNull("notes") ? row.get("notes").asText() : null
+                    );
+                } else {
+                    throw batch.error("unknown row type '" + type + "'");
+                }
+            }
+        }
+    }
+    
+    private void readCsv(BufferedReader reader, Batch batch) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        int habitColumn = header.indexOf("habit");
+        int dateColumn = header.indexOf("date");
+        int completedColumn = header.indexOf("completed");
+        int notesColumn = header.indexOf("notes");
+        if (habitColumn < 0 || dateColumn < 0) {
+            throw new IllegalArgumentException("CSV header must name the habit and date columns");
+        }
+        
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            if (batch.skip()) {
+                continue;
+            }
+            
+            String habitName = field(fields, habitColumn);
+            if (habitName.isEmpty()) {
+                throw batch.error("missing habit");
+            }
+            String notes = field(fields, notesColumn);
+            batch.add(
+                habitName,
+                parseDate(field(fields, dateColumn), batch),
+                Boolean.parseBoolean(field(fields, completedColumn)),
+                notes.isEmpty() ? null : notes
+            );
+        }
+    }
+    
+    /**
+     * Rows of the current import that are read but not yet written.
+     */
+    private class Batch {
+        private final ImportJob job;
+        private final long skipRows;
+        private final Map<String, Long> habitIdsByName = new HashMap<>();
+        private final List<HabitEntryDTO> entries = new ArrayList<>();
+        private long row;
+        
+        Batch(ImportJob job) {
+            this.job = job;
+            this.skipRows = job.getRowsCommitted();
+            // In a read-write transaction so the habits come from the primary database
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Habit habit : habitRepository.findByUserId(job.getUserId())) {
+                    habitIdsByName.putIfAbsent(habit.getName(), habit.getId());
+                }
+            });
+        }
+        
+        /**
+         * Counts the next row and tells whether an earlier run already committed it.
+         */
+        boolean skip() {
+            row++;
+            return row <= skipRows;
+        }
+        
+        Long resolveHabit(HabitDTO habit) {
+            Long habitId = habitIdsByName.get(habit.getName());
+            if (habitId != null) {
+                return habitId;
+            }
+            
+            habit.setUserId(job.getUserId());
+            if (habit.getStartDate() == null) {
+                habit.setStartDate(LocalDate.now());
+            }
+            if (habit.getFrequency() == null) {
+                habit.setFrequency(HabitFrequency.DAILY);
+            }
+            HabitDTO created = habitService.createHabit(habit);
+            if (Boolean.FALSE.equals(habit.getActive())) {
+                habitService.updateHabit(created.getId(), habit, job.getUserId());
+            }
+            habitIdsByName.put(habit.getName(), created.getId());
+            return created.getId();
+        }
+        
+        void add(String habitName, LocalDate date, boolean completed, String notes) {
+            Long habitId = habitIdsByName.get(habitName);
+            if (habitId == null) {
+                HabitDTO habit = new HabitDTO();
+                habit.setName(habitName);
+                habit.setStartDate(date);
+                habitId = resolveHabit(habit);
+            }
+            
+            HabitEntryDTO entry = new HabitEntryDTO();
+            entry.setHabitId(habitId);
+            entry.setDate(date);
+            entry.setCompleted(completed);
+            entry.setNotes(notes);
+            entries.add(entry);
+            
+            if (entries.size() >= batchSize) {
+                commit();
+            }
+        }
+        
+        /**
+         * Writes the pending entries and advances the job's progress in one transaction.
+         */
+        void commit() {
+            long committed = job.getRowsCommitted();
+            job.setRowsCommitted(Math.max(row, skipRows));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!entries.isEmpty() && habitEntryService.createOrUpdateEntries(entries, job.getUserId()).isEmpty()) {
+                        throw new IllegalStateException("Imported entries refer to a habit that is not the user's");
+                    }
+                    importJobRepository.save(job);
+                });
+            } catch (RuntimeException e) {
+                job.setRowsCommitted(committed);
+                throw e;
+            }
+            entries.clear();
+        }
+        
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Row " + row + ": " + message);
+        }
+    }
+    
+    private static String requireText(JsonNode row, String field, Batch batch) {
+        if (!row.hasNonNull(field) || row.get(field).asText().isEmpty()) {
+            throw batch.error("missing " + field);
+        }
+        return row.get(field).asText();
+    }
+    
+    private static LocalDate parseDate(String value, Batch batch) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw batch.error("invalid date '" + value + "'");
+        }
+    }
+    
+    private static HabitFrequency parseFrequency(String value, Batch batch) {
+        try {
+            return HabitFrequency.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw batch.error("invalid frequency '" + value + "'");
+        }
+    }
+    
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : "";
+    }
+    
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+    
+    private ImportJobDTO convertToDTO(ImportJob job) {
+        return new ImportJobDTO(
+            job.getId(),
+            job.getFormat(),
+            job.getStatus(),
+            job.getRowsCommitted(),
+            job.getError(),
+            job.getCreatedAt(),
+            job.getUpdatedAt()
+        );
+    }
+}
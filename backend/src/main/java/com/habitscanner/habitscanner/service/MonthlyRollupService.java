@@ -0,0 +1,201 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.model.MonthlyRollup;
+import com.habitscanner.habitscanner.repository.EntryDay;
+import com.habitscanner.habitscanner.repository.HabitCompletionCount;
+import com.habitscanner.habitscanner.repository.HabitEntryRepository;
+import com.habitscanner.habitscanner.repository.MonthlyRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Completion counts over date ranges, read from the {@link MonthlyRollup} rows for
+ * the whole months in a range and from the daily entries only for the partial months
+ * at its edges. A year is 12 rows per habit instead of 365.
+ */
+@Service
+public class MonthlyRollupService {
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+
+    /**
+     * Applies entry writes of one habit to its rollups. Must be called in the
+     * transaction of the writes, holding the habit's statistics lock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordEntryChanges(Long habitId, List<HabitStatisticsService.EntryChange> changes) {
+        Set<LocalDate> months = changes.stream()
+                .map(change -> monthStart(change.getDate()))
+                .collect(Collectors.toSet());
+        Map<LocalDate, MonthlyRollup> rollups = monthlyRollupRepository.findByHabitIdAndMonthStartIn(habitId, months).stream()
+                .collect(Collectors.toMap(MonthlyRollup::getMonthStart, Function.identity()));
+
+        for (HabitStatisticsService.EntryChange change : changes) {
+            MonthlyRollup rollup = rollups.computeIfAbsent(monthStart(change.getDate()), month -> new MonthlyRollup(habitId, month));
+            setDay(rollup, change.getDate(), change.getNewCompleted());
+        }
+        monthlyRollupRepository.saveAll(rollups.values());
+    }
+
+    /**
+     * Recomputes a habit's rollups from its entries.
+     */
+    @Transactional
+    public void rebuild(Long habitId) {
+        Map<LocalDate, MonthlyRollup> rollups = monthlyRollupRepository.findByHabitId(habitId).stream()
+                .collect(Collectors.toMap(MonthlyRollup::getMonthStart, Function.identity()));
+        rollups.values().forEach(rollup -> {
+            rollup.setEntryDays(0);
+            rollup.setCompletedDays(0);
+        });
+        for (EntryDay day : habitEntryRepository.findDaysByHabitId(habitId)) {
+            MonthlyRollup rollup = rollups.computeIfAbsent(monthStart(day.getDate()), month -> new MonthlyRollup(habitId, month));
+            setDay(rollup, day.getDate(), day.getCompleted());
+        }
+        rollups.values().forEach(MonthlyRollupService::recount);
+        monthlyRollupRepository.saveAll(rollups.values());
+    }
+
+    /**
+     * Entry counts per habit of the user between two dates, both included.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, HabitCompletionCount> countEntriesByHabit(String userId, LocalDate startDate, LocalDate endDate) {
+        Map<Long, Count> counts = new HashMap<>();
+        Span span = Span.of(startDate, endDate);
+        if (span.hasWholeMonths()) {
+            add(counts, monthlyRollupRepository.countEntriesByHabitForUserIdAndMonthBetween(userId, span.firstMonth, span.lastMonth));
+        }
+        for (LocalDate[] edge : span.edges()) {
+            add(counts, habitEntryRepository.countEntriesByHabitForUserIdAndDateBetween(userId, edge[0], edge[1]));
+        }
+        return new HashMap<>(counts);
+    }
+
+    /**
+     * Completed entries of the user between two dates, both included.
+     */
+    @Transactional(readOnly = true)
+    public long countCompletedEntries(String userId, LocalDate startDate, LocalDate endDate) {
+        long completed = 0;
+        Span span = Span.of(startDate, endDate);
+        if (span.hasWholeMonths()) {
+            completed += monthlyRollupRepository.countCompletedEntriesByUserIdAndMonthBetween(userId, span.firstMonth, span.lastMonth);
+        }
+        for (LocalDate[] edge : span.edges()) {
+            completed += habitEntryRepository.countCompletedEntriesByUserIdAndDateBetween(userId, edge[0], edge[1]);
+        }
+        return completed;
+    }
+
+    private static void setDay(MonthlyRollup rollup, LocalDate date, Boolean completed) {
+        int bit = 1 << (date.getDayOfMonth() - 1);
+        rollup.setEntryDays(completed != null ? rollup.getEntryDays() | bit : rollup.getEntryDays() & ~bit);
+        rollup.setCompletedDays(Boolean.TRUE.equals(completed) ? rollup.getCompletedDays() | bit : rollup.getCompletedDays() & ~bit);
+        recount(rollup);
+    }
+
+    private static void recount(MonthlyRollup rollup) {
+        rollup.setEntryCount(Integer.bitCount(rollup.getEntryDays()));
+        rollup.setCompletedCount(Integer.bitCount(rollup.getCompletedDays()));
+    }
+
+    private static LocalDate monthStart(LocalDate date) {
+        return date.withDayOfMonth(1);
+    }
+
+    private static void add(Map<Long, Count> counts, List<HabitCompletionCount> rows) {
+        for (HabitCompletionCount row : rows) {
+            Count count = counts.computeIfAbsent(row.getHabitId(), Count::new);
+            count.total += row.getTotal();
+            count.completed += row.getCompleted();
+        }
+    }
+
+    /**
+     * A date range split into the whole months it covers and the days before and after them.
+     */
+    private static final class Span {
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        // First days of the first and last whole month; lastMonth before firstMonth if there is none
+        private final LocalDate firstMonth;
+        private final LocalDate lastMonth;
+
+        private Span(LocalDate startDate, LocalDate endDate, LocalDate firstMonth, LocalDate lastMonth) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.firstMonth = firstMonth;
+            this.lastMonth = lastMonth;
+        }
+
+        static Span of(LocalDate startDate, LocalDate endDate) {
+            LocalDate firstMonth = startDate.getDayOfMonth() == 1 ? startDate : monthStart(startDate).plusMonths(1);
+            LocalDate lastMonth = endDate.equals(endDate.with(TemporalAdjusters.lastDayOfMonth()))
+                    ? monthStart(endDate)
+                    : monthStart(endDate).minusMonths(1);
+            return new Span(startDate, endDate, firstMonth, lastMonth);
+        }
+
+        boolean hasWholeMonths() {
+            return !lastMonth.isBefore(firstMonth);
+        }
+
+        // Day ranges outside the whole months, each as {first, last}
+        List<LocalDate[]> edges() {
+            if (!hasWholeMonths()) {
+                return startDate.isAfter(endDate) ? List.of() : List.<LocalDate[]>of(new LocalDate[] {startDate, endDate});
+            }
+            LocalDate afterLastMonth = lastMonth.plusMonths(1);
+            List<LocalDate[]> edges = new ArrayList<>();
+            if (startDate.isBefore(firstMonth)) {
+                edges.add(new LocalDate[] {startDate, firstMonth.minusDays(1)});
+            }
+            if (endDate.isAfter(afterLastMonth.minusDays(1))) {
+                edges.add(new LocalDate[] {afterLastMonth, endDate});
+            }
+            return edges;
+        }
+    }
+
+    private static final class Count implements HabitCompletionCount {
+        private final Long habitId;
+        private long total;
+        private long completed;
+
+        Count(Long habitId) {
+            this.habitId = habitId;
+        }
+
+        @Override
+        public Long getHabitId() {
+            return habitId;
+        }
+
+        @Override
+        public Long getTotal() {
+            return total;
+        }
+
+        @Override
+        public Long getCompleted() {
+            return completed;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.dto.HabitStatsDTO;
+import com.habitscanner.habitscanner.dto.StatsDTO;
+import com.habitscanner.habitscanner.repository.HabitCompletionCount;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregated statistics over a date range, computed in the database so the client
+ * never has to download the individual entries.
+ */
+@Service
+public class StatsService {
+    
+    @Autowired
+    private HabitService habitService;
+    
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+    
+    @Autowired
+    private HabitEntryService habitEntryService;
+    
+    /**
+     * Statistics for the current week (Monday to Sunday), month or year.
+     */
+    @Transactional(readOnly = true)
+    public Optional<StatsDTO> getStatsForPeriod(String userId, String period) {
+        LocalDate today = LocalDate.now();
+        switch (period.toLowerCase()) {
+            case "week":
+                return Optional.of(getStats(userId,
+                        today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                        today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY))));
+            case "month":
+                return Optional.of(getStats(userId,
+                        today.with(TemporalAdjusters.firstDayOfMonth()),
+                        today.with(TemporalAdjusters.lastDayOfMonth())));
+            case "year":
+                return Optional.of(getStats(userId,
+                        today.with(TemporalAdjusters.firstDayOfYear()),
+                        today.with(TemporalAdjusters.lastDayOfYear())));
+            default:
+                return Optional.empty();
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public StatsDTO getStats(String userId, LocalDate startDate, LocalDate endDate) {
+        habitEntryService.flushBufferedEntries(userId);
+        List<HabitDTO> habits = habitService.getAllHabitsByUserId(userId);
+        Map<Long, HabitCompletionCount> countsByHabitId = monthlyRollupService.countEntriesByHabit(userId, startDate, endDate);
+        
+        // Totals include entries of deactivated habits, the breakdown only active ones
+        long totalEntries = 0;
+        long completedEntries = 0;
+        for (HabitCompletionCount count : countsByHabitId.values()) {
+            totalEntries += count.getTotal();
+            completedEntries += count.getCompleted();
+        }
+        
+        List<HabitStatsDTO> habitStats = habits.stream()
+                .map(habit -> {
+                    HabitCompletionCount count = countsByHabitId.get(habit.getId());
+                    long total = count != null ? count.getTotal() : 0;
+                    long completed = count != null ? count.getCompleted() : 0;
+                    return new HabitStatsDTO(
+                        habit.getId(),
+                        habit.getName(),
+                        completed,
+                        total,
+                        HabitStatisticsCalculator.completionRate(completed, total),
+                        habit.getCurrentStreak(),
+                        habit.getLongestStreak()
+                    );
+                })
+                .collect(Collectors.toList());
+        
+        int bestStreak = habits.stream()
+                .mapToInt(HabitDTO::getLongestStreak)
+                .max()
+                .orElse(0);
+        
+        return new StatsDTO(
+            startDate,
+            endDate,
+            totalEntries,
+            completedEntries,
+            HabitStatisticsCalculator.completionRate(completedEntries, totalEntries),
+            bestStreak,
+            habitStats
+        );
+    }
+}
@@ -0,0 +1,212 @@
+package com.habitscanner.habitscanner.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asks Google's tokeninfo endpoint about access tokens over a pooled, asynchronous
+ * {@link HttpClient} with connect and response timeouts.
+ *
+ * <p>Two guards keep a slow or failing Google from taking the application with it:
+ * <ul>
+ *   <li>a bulkhead: at most {@code max-concurrent-calls} calls in flight, further
+ *       callers are turned away at once instead of queueing</li>
+ *   <li>a circuit breaker: after {@code failure-threshold} consecutive errors
+ *       (timeouts, connection failures, 5xx) calls fail fast for {@code open-duration},
+ *       then a single trial call decides whether to close it again</li>
+ * </ul>
+ * A call that is turned away or fails yields {@code null}, as an invalid token does.
+ */
+@Component
+public class TokenInfoClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenInfoClient.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final String tokenInfoUri;
+    private final Duration requestTimeout;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public TokenInfoClient(@Value("${habitscanner.auth.tokeninfo-uri:https://www.googleapis.com/oauth2/v1/tokeninfo}") String tokenInfoUri,
+                           @Value("${habitscanner.auth.tokeninfo.connect-timeout:PT2S}") Duration connectTimeout,
+                           @Value("${habitscanner.auth.tokeninfo.request-timeout:PT3S}") Duration requestTimeout,
+                           @Value("${habitscanner.auth.tokeninfo.max-concurrent-calls:100}") int maxConcurrentCalls,
+                           @Value("${habitscanner.auth.tokeninfo.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                           @Value("${habitscanner.auth.tokeninfo.circuit-breaker.open-duration:PT30S}") Duration openDuration,
+                           MeterRegistry meterRegistry) {
+        this.tokenInfoUri = tokenInfoUri;
+        this.requestTimeout = requestTimeout;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        this.meterRegistry = meterRegistry;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    /**
+     * Looks the token up without blocking the caller.
+     *
+     * @return a future of the introspection result, completing with {@code null} if the
+     *         token is invalid or Google could not be asked; it never completes exceptionally
+     */
+    public CompletableFuture<TokenIntrospection> introspect(String token) {
+        if (!bulkhead.tryAcquire()) {
+            record("rejected", System.nanoTime());
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!circuitBreaker.allowRequest()) {
+            bulkhead.release();
+            record("open", System.nanoTime());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long start = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(tokenInfoUri + "?access_token=" + URLEncoder.encode(token, StandardCharsets.UTF_8)))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+
+        CompletableFuture<HttpResponse<String>> response;
+        try {
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            circuitBreaker.onFailure();
+            record("error", start);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return response.handle((result, error) -> {
+            bulkhead.release();
+            if (error != null || result.statusCode() >= 500) {
+                circuitBreaker.onFailure();
+                record("error", start);
+                if (error != null) {
+                    logger.debug("tokeninfo call failed: {}", error.toString());
+                }
+                return null;
+            }
+
+            circuitBreaker.onSuccess();
+            TokenIntrospection introspection = result.statusCode() == 200 ? parse(result.body()) : null;
+            record(introspection != null ? "valid" : "invalid", start);
+            return introspection;
+        });
+    }
+
+    boolean isCircuitOpen() {
+        return circuitBreaker.isOpen();
+    }
+
+    private TokenIntrospection parse(String body) {
+        try {
+            JsonNode jsonNode = objectMapper.readTree(body);
+            if (jsonNode.has("user_id") && !jsonNode.has("error")) {
+                Instant expiresAt = jsonNode.has("expires_in")
+                        ? Instant.now().plusSeconds(Math.max(0, jsonNode.get("expires_in").asLong()))
+                        : null;
+                return TokenIntrospection.valid(
+                        jsonNode.get("user_id").asText(),
+                        jsonNode.has("email") ? jsonNode.get("email").asText() : null,
+                        expiresAt);
+            }
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Timed per outcome: "valid", "invalid" (Google rejected the token), "error",
+    // "rejected" (bulkhead full) or "open" (circuit breaker open)
+    private void record(String outcome, long startNanos) {
+        Timer.builder(TokenValidationService.TOKENINFO_TIMER)
+                .description("Round trips to Google's tokeninfo endpoint")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Consecutive-failure circuit breaker. Closed, it lets every call through; open, it
+     * refuses them until the open duration has passed; then it lets exactly one trial
+     * call through, whose outcome closes it or opens it again.
+     */
+    static final class CircuitBreaker {
+
+        private final int failureThreshold;
+        private final long openNanos;
+
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        // System.nanoTime() until which calls are refused; 0 when closed
+        private final AtomicLong openUntil = new AtomicLong();
+        private final AtomicInteger trialsInFlight = new AtomicInteger();
+
+        CircuitBreaker(int failureThreshold, Duration openDuration) {
+            this.failureThreshold = failureThreshold;
+            this.openNanos = openDuration.toNanos();
+        }
+
+        boolean allowRequest() {
+            long until = openUntil.get();
+            if (until == 0) {
+                return true;
+            }
+            if (System.nanoTime() - until < 0) {
+                return false;
+            }
+            // Half open: one trial call at a time
+            return trialsInFlight.compareAndSet(0, 1);
+        }
+
+        void onSuccess() {
+            consecutiveFailures.set(0);
+            openUntil.set(0);
+            trialsInFlight.set(0);
+        }
+
+        void onFailure() {
+            boolean trial = trialsInFlight.getAndSet(0) == 1;
+            if (trial || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                open();
+            }
+        }
+
+        boolean isOpen() {
+            return openUntil.get() != 0;
+        }
+
+        private void open() {
+            long until = System.nanoTime() + openNanos;
+            // 0 is reserved for "closed"
+            openUntil.set(until != 0 ? until : 1);
+            logger.warn("tokeninfo circuit breaker open for {} ms", openNanos / 1_000_000);
+        }
+    }
+}
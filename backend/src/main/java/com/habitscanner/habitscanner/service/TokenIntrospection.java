@@ -0,0 +1,48 @@
+package com.habitscanner.habitscanner.service;
+
+import java.time.Instant;
+
+/**
+ * Immutable result of validating a bearer token: whether it is valid and, if so,
+ * who it belongs to and when it expires.
+ */
+public final class TokenIntrospection {
+
+    private static final TokenIntrospection INVALID = new TokenIntrospection(false, null, null, null);
+
+    private final boolean valid;
+    private final String userId;
+    private final String email;
+    private final Instant expiresAt;
+
+    private TokenIntrospection(boolean valid, String userId, String email, Instant expiresAt) {
+        this.valid = valid;
+        this.userId = userId;
+        this.email = email;
+        this.expiresAt = expiresAt;
+    }
+
+    public static TokenIntrospection valid(String userId, String email, Instant expiresAt) {
+        return new TokenIntrospection(true, userId, email, expiresAt);
+    }
+
+    public static TokenIntrospection invalid() {
+        return INVALID;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -1,62 +1,105 @@
 package com.habitscanner.habitscanner.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.Optional;
 
 @Service
 public class TokenValidationService {
-    
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    
-    public boolean isValidGoogleToken(String token) {
-        try {
-            String url = "https://www.googleapis.com/oauth2/v1/tokeninfo?access_token=" + token;
-            String response = restTemplate.getForObject(url, String.class);
-            
-            if (response != null) {
-                JsonNode jsonNode = objectMapper.readTree(response);
-                return jsonNode.has("user_id") && !jsonNode.has("error");
+
+    static final String TOKENINFO_TIMER = "habitscanner.auth.tokeninfo";
+
+    // Valid introspection results keyed by SHA-256 of the token. Invalid results are
+    // not stored; a miss for the same key is computed once and shared.
+    private final AsyncCache<String, TokenIntrospection> tokenCache;
+
+    private final TokenInfoClient tokenInfoClient;
+
+    // Present only in jwt validation mode
+    private final GoogleIdTokenVerifier idTokenVerifier;
+
+    public TokenValidationService(@Value("${habitscanner.auth.token-cache.max-size:10000}") long maxSize,
+                                  @Value("${habitscanner.auth.token-cache.ttl:PT5M}") Duration ttl,
+                                  TokenInfoClient tokenInfoClient,
+                                  Optional<GoogleIdTokenVerifier> idTokenVerifier) {
+        this.tokenInfoClient = tokenInfoClient;
+        this.idTokenVerifier = idTokenVerifier.orElse(null);
+        this.tokenCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(ttl))
+                .buildAsync();
+    }
+
+    /**
+     * Validates the token and returns everything the application needs to know about it.
+     * Never returns {@code null}; an unusable token yields {@link TokenIntrospection#invalid()}.
+     */
+    public TokenIntrospection introspect(String token) {
+        if (token == null || token.isEmpty()) {
+            return TokenIntrospection.invalid();
+        }
+        if (idTokenVerifier != null && idTokenVerifier.supports(token)) {
+            TokenIntrospection verified = idTokenVerifier.verify(token);
+            if (verified != null) {
+                return verified;
             }
-            return false;
-        } catch (Exception e) {
-            return false;
+            // Signing keys unavailable: fall back to tokeninfo
         }
+
+        // The cache only stores the client's future, so nothing blocks while holding its
+        // internal lock; the wait is bounded by the client's timeouts
+        TokenIntrospection introspection = tokenCache.get(hash(token), (key, executor) -> tokenInfoClient.introspect(token)).join();
+        return introspection != null ? introspection : TokenIntrospection.invalid();
     }
-    
-    public String getUserIdFromToken(String token) {
+
+    private static String hash(String token) {
         try {
-            String url = "https://www.googleapis.com/oauth2/v1/tokeninfo?access_token=" + token;
-            String response = restTemplate.getForObject(url, String.class);
-            
-            if (response != null) {
-                JsonNode jsonNode = objectMapper.readTree(response);
-                if (jsonNode.has("user_id")) {
-                    return jsonNode.get("user_id").asText();
-                }
-            }
-            return null;
-        } catch (Exception e) {
-            return null;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
-    
-    public JsonNode getUserInfoFromToken(String token) {
-        try {
-            String url = "https://www.googleapis.com/oauth2/v1/tokeninfo?access_token=" + token;
-            String response = restTemplate.getForObject(url, String.class);
-            
-            if (response != null) {
-                return objectMapper.readTree(response);
+
+    /**
+     * Expires each entry at the token's own expiry or the configured TTL,
+     * whichever comes first.
+     */
+    private static final class TokenExpiry implements Expiry<String, TokenIntrospection> {
+
+        private final long ttlNanos;
+
+        TokenExpiry(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, TokenIntrospection value, long currentTime) {
+            if (value.getExpiresAt() != null) {
+                long expiresIn = Math.max(0, Duration.between(Instant.now(), value.getExpiresAt()).toNanos());
+                return Math.min(ttlNanos, expiresIn);
             }
-            return null;
-        } catch (Exception e) {
-            return null;
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenIntrospection value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenIntrospection value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
-
@@ -0,0 +1,74 @@
+package com.habitscanner.habitscanner.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version of each user's habits and entries, bumped by every write to them
+ * and served as the ETag of the read endpoints, so an unchanged listing can be
+ * answered with 304 without touching the database.
+ *
+ * <p>Versions come from one counter shared by all users. A user missing from the map,
+ * never written or evicted, gets the counter's current value: it is at least as high
+ * as any version handed out before the user's last write, so an old ETag never
+ * matches data it did not describe. Versions are per process; behind several
+ * instances the ETags of one do not vouch for writes made through another.
+ */
+@Component
+public class UserDataVersions {
+
+    // Keeps the ETags of one run from matching those of an earlier one
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong counter = new AtomicLong();
+    private final Cache<String, Long> versions;
+
+    public UserDataVersions(@Value("${habitscanner.etag.max-users:100000}") long maxUsers) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    /**
+     * Strong ETag of the user's data as of now. Streaks depend on the current date, so
+     * it is part of the tag as well.
+     */
+    public String etag(String userId) {
+        return "\"" + epoch + "." + version(userId) + "." + LocalDate.now() + "\"";
+    }
+    
+    /**
+     * Current version of the user's data; differs from every version handed out before
+     * the user's last committed write.
+     */
+    public long version(String userId) {
+        return versions.get(userId, key -> counter.get());
+    }
+
+    /**
+     * Records that the user's data changed. Inside a transaction the version moves once
+     * it commits, so a concurrent read cannot tag the data from before the write with it.
+     */
+    public void changed(String userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(userId);
+                }
+            });
+        } else {
+            bump(userId);
+        }
+    }
+
+    private void bump(String userId) {
+        versions.put(userId, counter.incrementAndGet());
+    }
+}
@@ -0,0 +1,59 @@
+-- Schema as Hibernate generated it from the entities before migrations were introduced.
+-- Ids come from pooled sequences; their increments match the entities' allocationSize.
+
+CREATE SEQUENCE habits_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE habit_entries_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE import_jobs_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE habits (
+    id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    user_id VARCHAR(255) NOT NULL,
+    start_date DATE NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    frequency VARCHAR(255) CHECK (frequency IN ('DAILY', 'WEEKLY', 'MONTHLY')),
+    active BOOLEAN NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_habits_user_active_created ON habits (user_id, active, created_at);
+
+CREATE TABLE habit_entries (
+    id BIGINT NOT NULL,
+    habit_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    completed BOOLEAN NOT NULL,
+    notes VARCHAR(500),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_habit_entries_habit_date UNIQUE (habit_id, date),
+    CONSTRAINT fk_habit_entries_habit FOREIGN KEY (habit_id) REFERENCES habits (id)
+);
+
+CREATE TABLE habit_statistics (
+    habit_id BIGINT NOT NULL,
+    total_entries INTEGER NOT NULL,
+    completed_entries INTEGER NOT NULL,
+    longest_streak INTEGER NOT NULL,
+    last_streak_end DATE,
+    last_streak_length INTEGER NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (habit_id)
+);
+
+CREATE TABLE import_jobs (
+    id BIGINT NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    format VARCHAR(255) NOT NULL CHECK (format IN ('NDJSON', 'CSV')),
+    status VARCHAR(255) NOT NULL CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED')),
+    rows_committed BIGINT NOT NULL,
+    error VARCHAR(500),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_import_jobs_user ON import_jobs (user_id);
@@ -0,0 +1,32 @@
+-- One row per habit and month with a bitmask of the days that have an entry and of
+-- those that are completed; bit d - 1 stands for day d.
+
+CREATE TABLE monthly_rollups (
+    habit_id BIGINT NOT NULL,
+    month_start DATE NOT NULL,
+    entry_days INTEGER NOT NULL,
+    completed_days INTEGER NOT NULL,
+    entry_count INTEGER NOT NULL,
+    completed_count INTEGER NOT NULL,
+    version INTEGER NOT NULL,
+    PRIMARY KEY (habit_id, month_start)
+);
+
+-- Backfill from the existing entries. A habit has at most one entry per day, so the
+-- sum of the day bits is their union.
+INSERT INTO monthly_rollups (habit_id, month_start, entry_days, completed_days, entry_count, completed_count, version)
+SELECT habit_id,
+       month_start,
+       CAST(SUM(day_bit) AS INTEGER),
+       CAST(SUM(CASE WHEN completed THEN day_bit ELSE 0 END) AS INTEGER),
+       COUNT(*),
+       SUM(CASE WHEN completed THEN 1 ELSE 0 END),
+       0
+FROM (
+    SELECT habit_id,
+           completed,
+           DATEADD(DAY, 1 - EXTRACT(DAY FROM date), date) AS month_start,
+           CAST(POWER(2, EXTRACT(DAY FROM date) - 1) AS BIGINT) AS day_bit
+    FROM habit_entries
+) days
+GROUP BY habit_id, month_start;
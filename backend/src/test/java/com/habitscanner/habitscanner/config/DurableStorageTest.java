@@ -0,0 +1,54 @@
+package com.habitscanner.habitscanner.config;
+
+import com.habitscanner.habitscanner.HabitscannerApplication;
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.model.HabitFrequency;
+import com.habitscanner.habitscanner.service.HabitService;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Starts the application twice on the same database files, as a restart would
+class DurableStorageTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void dataAndSchemaSurviveARestart() {
+        Long habitId;
+        try (ConfigurableApplicationContext context = start()) {
+            HabitDTO habit = new HabitDTO();
+            habit.setName("Kept");
+            habit.setUserId("durable-user");
+            habit.setStartDate(LocalDate.now());
+            habit.setFrequency(HabitFrequency.DAILY);
+            habitId = context.getBean(HabitService.class).createHabit(habit).getId();
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            assertEquals("Kept", context.getBean(HabitService.class).getHabitById(habitId, "durable-user").orElseThrow().getName());
+
+            MigrationInfoService migrations = context.getBean(Flyway.class).info();
+            assertEquals(0, migrations.pending().length);
+            assertEquals(migrations.all().length, migrations.applied().length, "migrations ran again on restart");
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(HabitscannerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("durable")
+                .run("--habitscanner.data-dir=" + dataDir,
+                     "--spring.main.banner-mode=off");
+    }
+}
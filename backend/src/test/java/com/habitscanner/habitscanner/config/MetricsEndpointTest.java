@@ -0,0 +1,88 @@
+package com.habitscanner.habitscanner.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test contexts leave metrics export off unless asked
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MetricsEndpointTest {
+
+    private static HttpServer tokenInfoServer;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @BeforeAll
+    static void startTokenInfo() throws IOException {
+        // Local stand-in for Google's tokeninfo endpoint accepting every token
+        tokenInfoServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        tokenInfoServer.createContext("/tokeninfo", exchange -> {
+            byte[] body = "{\"user_id\":\"metrics-user\",\"expires_in\":3600}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        tokenInfoServer.start();
+    }
+
+    @AfterAll
+    static void stopTokenInfo() {
+        tokenInfoServer.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void tokenInfoUri(DynamicPropertyRegistry registry) {
+        registry.add("habitscanner.auth.tokeninfo-uri",
+                () -> "http://127.0.0.1:" + tokenInfoServer.getAddress().getPort() + "/tokeninfo");
+    }
+
+    @Test
+    void exposesRequestAuthQueryAndPoolMetrics() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth("metrics-token");
+        ResponseEntity<String> habits = restTemplate.exchange("/api/habits", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.OK, habits.getStatusCode());
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity("http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+        assertEquals(HttpStatus.OK, scrape.getStatusCode());
+        assertNotEquals(HttpStatus.OK, restTemplate.getForEntity("/actuator/prometheus", String.class).getStatusCode(),
+                "metrics served on the application port");
+
+        String metrics = scrape.getBody();
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{"), "request histogram");
+        assertTrue(metrics.contains("uri=\"/api/habits\""), "request timer per endpoint");
+        assertTrue(metrics.contains("habitscanner_auth_tokeninfo_seconds_count{application=\"habitscanner\",outcome=\"valid\","), "tokeninfo timer");
+        assertTrue(metrics.contains("spring_data_repository_invocations_seconds_bucket{"), "repository histogram");
+        assertTrue(metrics.contains("repository=\"HabitRepository\""), "timer per repository");
+        assertTrue(metrics.contains("hibernate_statements_total"), "Hibernate statistics");
+        assertTrue(metrics.contains("hikaricp_connections_active"), "pool gauges");
+        assertTrue(metrics.contains("habitscanner_request_statements_count{application=\"habitscanner\",handler=\"HabitController.getAllHabits\","), "statements per request");
+    }
+}
@@ -0,0 +1,119 @@
+package com.habitscanner.habitscanner.config;
+
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.service.HabitService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.habitscanner.habitscanner.service.HabitFixtures.habit;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Two in-memory databases stand in for the primary and its replica. Replication is
+// done by hand: the tests copy the primary's schema, and data when they want it.
+@SpringBootTest(properties = {
+        "habitscanner.datasource.replica.url=jdbc:h2:mem:replica-${random.uuid}",
+        "habitscanner.datasource.replica.username=sa",
+        "habitscanner.datasource.replica.password=password",
+        "habitscanner.statistics.rebuild-on-startup=false"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() {
+        replicate(false);
+    }
+
+    @Test
+    void readOnlyMethodsReadFromTheReplica() {
+        HabitDTO habit = habitService.createHabit(habit("replica-user", "Read", LocalDate.now()));
+
+        // Written to the primary only; the replica has not caught up yet
+        assertEquals(1, new JdbcTemplate(primaryDataSource).queryForObject(
+                "SELECT COUNT(*) FROM habits WHERE user_id = 'replica-user'", Integer.class));
+        assertTrue(habitService.getAllHabitsByUserId("replica-user").isEmpty());
+        // Lookups by id are answered by the second-level cache, which the insert filled
+        assertTrue(habitService.getHabitById(habit.getId(), "replica-user").isPresent());
+
+        replicate(true);
+
+        // The listing read from the replica before it caught up was not cached
+        List<HabitDTO> habits = habitService.getAllHabitsByUserId("replica-user");
+        assertEquals(1, habits.size());
+        assertEquals("Read", habits.get(0).getName());
+    }
+
+    @Test
+    void writesSeeThePrimaryBeforeTheReplicaCatchesUp() {
+        HabitDTO habit = habitService.createHabit(habit("writer-user", "Write", LocalDate.now()));
+
+        HabitDTO changes = habit("writer-user", "Written", LocalDate.now());
+        changes.setActive(true);
+        assertEquals("Written", habitService.updateHabit(habit.getId(), changes, "writer-user").orElseThrow().getName());
+        assertTrue(habitService.deleteHabit(habit.getId(), "writer-user"));
+
+        assertEquals(Boolean.FALSE, new JdbcTemplate(primaryDataSource).queryForObject(
+                "SELECT active FROM habits WHERE id = ?", Boolean.class, habit.getId()));
+    }
+
+    @Test
+    void taggedReadsSeeTheWritesTheirETagCovers() throws Exception {
+        habitService.createHabit(habit("etag-replica-user", "Tagged", LocalDate.now()));
+
+        // The replica has not caught up; a listing read from it would be tagged with the
+        // version of the write it does not show, and every revalidation would keep it
+        String etag = mockMvc.perform(get("/api/habits").with(user("etag-replica-user")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Tagged"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        mockMvc.perform(get("/api/habits/count").with(user("etag-replica-user")))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1"));
+
+        mockMvc.perform(get("/api/habits").header(HttpHeaders.IF_NONE_MATCH, etag).with(user("etag-replica-user")))
+                .andExpect(status().isNotModified());
+    }
+
+    // Replaces the replica's contents with a copy of the primary's schema, and its rows
+    // if withData is set
+    private void replicate(boolean withData) {
+        List<String> script = new JdbcTemplate(primaryDataSource).queryForList(withData ? "SCRIPT" : "SCRIPT NODATA", String.class);
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : script) {
+            replica.execute(statement);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.habitscanner.habitscanner.config;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MockMvc expectations on the SQL statements a request issued, as counted by
+ * {@link StatementBudgetInterceptor}.
+ */
+public final class StatementCountMatchers {
+
+    private StatementCountMatchers() {}
+
+    public static ResultMatcher statementCount(int expected) {
+        return result -> assertEquals(expected, statementsOf(result),
+                result.getRequest().getMethod() + " " + result.getRequest().getRequestURI() + " statement count");
+    }
+
+    public static int statementsOf(MvcResult result) {
+        Object count = result.getRequest().getAttribute(StatementBudgetInterceptor.STATEMENT_COUNT_ATTRIBUTE);
+        assertNotNull(count, "Request did not reach a controller");
+        return (Integer) count;
+    }
+}
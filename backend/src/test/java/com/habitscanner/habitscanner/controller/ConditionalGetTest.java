@@ -0,0 +1,95 @@
+package com.habitscanner.habitscanner.controller;
+
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.service.HabitEntryService;
+import com.habitscanner.habitscanner.service.HabitFixtures;
+import com.habitscanner.habitscanner.service.HabitService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static com.habitscanner.habitscanner.config.StatementCountMatchers.statementCount;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private HabitFixtures habitFixtures;
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void unchangedListingIsAnsweredWithoutQueries() throws Exception {
+        habitFixtures.createHabit("etag-unchanged", "Read", today);
+
+        String etag = etagOf("/api/habits", "etag-unchanged");
+        assertTrue(etag.startsWith("\""), "strong ETag");
+
+        mockMvc.perform(get("/api/habits").header(HttpHeaders.IF_NONE_MATCH, etag).with(user("etag-unchanged")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(statementCount(0));
+        mockMvc.perform(get("/api/entries/date/" + today).header(HttpHeaders.IF_NONE_MATCH, etag).with(user("etag-unchanged")))
+                .andExpect(status().isNotModified())
+                .andExpect(statementCount(0));
+    }
+
+    @Test
+    void habitAndEntryWritesChangeTheETag() throws Exception {
+        Long habitId = habitFixtures.createHabit("etag-writer", "Write", today);
+        String beforeEntry = etagOf("/api/habits", "etag-writer");
+
+        HabitEntryDTO entry = new HabitEntryDTO();
+        entry.setDate(today);
+        entry.setCompleted(true);
+        habitEntryService.createOrUpdateEntry(habitId, entry, "etag-writer").orElseThrow();
+
+        mockMvc.perform(get("/api/habits").header(HttpHeaders.IF_NONE_MATCH, beforeEntry).with(user("etag-writer")))
+                .andExpect(status().isOk());
+        String afterEntry = etagOf("/api/habits", "etag-writer");
+        assertNotEquals(beforeEntry, afterEntry);
+
+        assertTrue(habitService.deleteHabit(habitId, "etag-writer"));
+        assertNotEquals(afterEntry, etagOf("/api/habits", "etag-writer"));
+    }
+
+    @Test
+    void writesOfOtherUsersKeepTheETag() throws Exception {
+        habitFixtures.createHabit("etag-bystander", "Mine", today);
+        String etag = etagOf("/api/habits", "etag-bystander");
+
+        habitFixtures.createHabit("etag-other", "Theirs", today);
+
+        mockMvc.perform(get("/api/habits").header(HttpHeaders.IF_NONE_MATCH, etag).with(user("etag-bystander")))
+                .andExpect(status().isNotModified());
+    }
+
+    private String etagOf(String uri, String userId) throws Exception {
+        String etag = mockMvc.perform(get(uri).with(user(userId)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+}
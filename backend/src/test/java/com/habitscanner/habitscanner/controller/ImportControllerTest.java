@@ -0,0 +1,57 @@
+package com.habitscanner.habitscanner.controller;
+
+import com.habitscanner.habitscanner.model.ImportStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void jobIsCreatedBeforeTheUploadAndResumedByIt() throws Exception {
+        String userId = "import-controller-user";
+        String location = mockMvc.perform(post("/api/import?format=csv").with(user(userId)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value(ImportStatus.RUNNING.name()))
+                .andExpect(jsonPath("$.rowsCommitted").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        assertNotNull(location);
+        assertTrue(location.matches(".*/api/import/\\d+"), location);
+
+        mockMvc.perform(get(location).with(user(userId)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(location).with(user("someone-else")))
+                .andExpect(status().isNotFound());
+
+        String csv = "habit,date,completed,notes\nSwim," + LocalDate.now() + ",true,\n";
+        mockMvc.perform(put(location).content("habit,date\nSwim,never\n").with(user(userId)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(ImportStatus.FAILED.name()));
+        mockMvc.perform(put(location).content(csv).with(user(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(ImportStatus.COMPLETED.name()))
+                .andExpect(jsonPath("$.rowsCommitted").value(1));
+
+        // A completed job takes no further uploads
+        mockMvc.perform(put(location).content(csv).with(user(userId)))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,57 @@
+package com.habitscanner.habitscanner.controller;
+
+import com.habitscanner.habitscanner.service.HabitFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static com.habitscanner.habitscanner.config.StatementCountMatchers.statementCount;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the SQL statement count of the listing endpoints, independent of how many
+ * habits and entries the user has.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatementBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HabitFixtures habitFixtures;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void listingHabits() throws Exception {
+        habitFixtures.createHabitsWithEntries("budget-few", 2, 7, day -> day % 2 == 0);
+        habitFixtures.createHabitsWithEntries("budget-many", 25, 7, day -> day % 2 == 0);
+
+        mockMvc.perform(get("/api/habits").with(user("budget-few")))
+                .andExpect(status().isOk())
+                .andExpect(statementCount(2));
+        mockMvc.perform(get("/api/habits").with(user("budget-many")))
+                .andExpect(status().isOk())
+                .andExpect(statementCount(2));
+    }
+
+    @Test
+    void listingEntryRange() throws Exception {
+        habitFixtures.createHabitsWithEntries("budget-range", 10, 7, day -> day % 2 == 0);
+
+        mockMvc.perform(get("/api/entries/range")
+                        .param("startDate", today.minusDays(6).toString())
+                        .param("endDate", today.toString())
+                        .with(user("budget-range")))
+                .andExpect(status().isOk())
+                .andExpect(statementCount(1));
+    }
+}
@@ -0,0 +1,136 @@
+package com.habitscanner.habitscanner.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every repository query that serves a request, asks H2 for the plan of the
+ * SQL it produced and fails if any table is read with a full scan.
+ *
+ * <p>{@code findAll} and {@code findHabitIdsWithoutStatistics} read every row by
+ * design and are not checked.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.habitscanner.habitscanner.repository.RecordingStatementInspector")
+@Transactional
+class QueryPlanTest {
+
+    private static final String USER_ID = "plan-user";
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+
+    @Autowired
+    private HabitStatisticsRepository habitStatisticsRepository;
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        LocalDate today = LocalDate.now();
+        LocalDate monthAgo = today.minusDays(30);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("HabitRepository.findById", () -> habitRepository.findById(1L));
+        queries.put("HabitRepository.existsByIdAndUserId", () -> habitRepository.existsByIdAndUserId(1L, USER_ID));
+        queries.put("HabitRepository.findByIdForUpdate", () -> habitRepository.findByIdForUpdate(1L));
+        queries.put("HabitRepository.findAllById", () -> habitRepository.findAllById(List.of(1L, 2L)));
+        queries.put("HabitRepository.findByUserIdAndActiveTrue", () -> habitRepository.findByUserIdAndActiveTrue(USER_ID));
+        queries.put("HabitRepository.findByUserId", () -> habitRepository.findByUserId(USER_ID));
+        queries.put("HabitRepository.findActiveHabitsByUserIdOrderByCreatedAtDesc", () -> habitRepository.findActiveHabitsByUserIdOrderByCreatedAtDesc(USER_ID));
+        queries.put("HabitRepository.streamByUserId", () -> consume(habitRepository.streamByUserId(USER_ID)));
+        queries.put("HabitRepository.countActiveHabitsByUserId", () -> habitRepository.countActiveHabitsByUserId(USER_ID));
+        queries.put("HabitEntryRepository.findById", () -> habitEntryRepository.findById(1L));
+        queries.put("HabitEntryRepository.findByHabitId", () -> habitEntryRepository.findByHabitId(1L));
+        queries.put("HabitEntryRepository.findByHabitIdIn", () -> habitEntryRepository.findByHabitIdIn(List.of(1L, 2L)));
+        queries.put("HabitEntryRepository.findByHabitIdAndDateBetween", () -> habitEntryRepository.findByHabitIdAndDateBetween(1L, monthAgo, today));
+        queries.put("HabitEntryRepository.findByHabitIdAndDateIn", () -> habitEntryRepository.findByHabitIdAndDateIn(1L, List.of(monthAgo, today)));
+        queries.put("HabitEntryRepository.findByHabitIdAndDate", () -> habitEntryRepository.findByHabitIdAndDate(1L, today));
+        queries.put("HabitEntryRepository.deleteByIdAndUserId", () -> habitEntryRepository.deleteByIdAndUserId(1L, USER_ID));
+        queries.put("HabitEntryRepository.findByHabitIdAndUserIdAndDate", () -> habitEntryRepository.findByHabitIdAndUserIdAndDate(1L, USER_ID, today));
+        queries.put("HabitEntryRepository.countByHabitId", () -> habitEntryRepository.countByHabitId(1L));
+        queries.put("HabitEntryRepository.countByHabitIdAndCompletedTrue", () -> habitEntryRepository.countByHabitIdAndCompletedTrue(1L));
+        queries.put("HabitEntryRepository.findCompletedDatesByHabitId", () -> habitEntryRepository.findCompletedDatesByHabitId(1L));
+        queries.put("HabitEntryRepository.findDTOsByHabitIdAndUserId", () -> habitEntryRepository.findDTOsByHabitIdAndUserId(1L, USER_ID, Limit.of(100)));
+        queries.put("HabitEntryRepository.findDTOsByHabitIdAndUserIdAfter", () -> habitEntryRepository.findDTOsByHabitIdAndUserIdAfter(1L, USER_ID, monthAgo, 1L, Limit.of(100)));
+        queries.put("HabitEntryRepository.streamDTOsByUserId", () -> consume(habitEntryRepository.streamDTOsByUserId(USER_ID)));
+        queries.put("HabitEntryRepository.findDTOsByUserIdAndDate", () -> habitEntryRepository.findDTOsByUserIdAndDate(USER_ID, today));
+        queries.put("HabitEntryRepository.findDTOsByUserIdAndDateBetween", () -> habitEntryRepository.findDTOsByUserIdAndDateBetween(USER_ID, monthAgo, today, Limit.of(100)));
+        queries.put("HabitEntryRepository.findDTOsByUserIdAndDateBetweenAfter", () -> habitEntryRepository.findDTOsByUserIdAndDateBetweenAfter(USER_ID, monthAgo, today, monthAgo, 1L, Limit.of(100)));
+        queries.put("HabitEntryRepository.countEntriesByHabitForUserIdAndDateBetween", () -> habitEntryRepository.countEntriesByHabitForUserIdAndDateBetween(USER_ID, monthAgo, today));
+        queries.put("HabitEntryRepository.countCompletedEntriesByUserIdAndDateBetween", () -> habitEntryRepository.countCompletedEntriesByUserIdAndDateBetween(USER_ID, monthAgo, today));
+        queries.put("HabitStatisticsRepository.findById", () -> habitStatisticsRepository.findById(1L));
+        queries.put("HabitStatisticsRepository.findAllById", () -> habitStatisticsRepository.findAllById(List.of(1L, 2L)));
+        queries.put("HabitStatisticsRepository.findByHabitIdForUpdate", () -> habitStatisticsRepository.findByHabitIdForUpdate(1L));
+        queries.put("HabitEntryRepository.findDaysByHabitId", () -> habitEntryRepository.findDaysByHabitId(1L));
+        queries.put("MonthlyRollupRepository.findByHabitId", () -> monthlyRollupRepository.findByHabitId(1L));
+        queries.put("MonthlyRollupRepository.findByHabitIdAndMonthStartIn", () -> monthlyRollupRepository.findByHabitIdAndMonthStartIn(1L, List.of(today.withDayOfMonth(1))));
+        queries.put("MonthlyRollupRepository.countEntriesByHabitForUserIdAndMonthBetween", () -> monthlyRollupRepository.countEntriesByHabitForUserIdAndMonthBetween(USER_ID, monthAgo.withDayOfMonth(1), today.withDayOfMonth(1)));
+        queries.put("MonthlyRollupRepository.countCompletedEntriesByUserIdAndMonthBetween", () -> monthlyRollupRepository.countCompletedEntriesByUserIdAndMonthBetween(USER_ID, monthAgo.withDayOfMonth(1), today.withDayOfMonth(1)));
+
+        List<String> scans = new ArrayList<>();
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            // Habits found in the second-level cache would not reach the database
+            entityManager.getEntityManagerFactory().getCache().evictAll();
+            RecordingStatementInspector.drain();
+            query.getValue().run();
+            List<String> statements = RecordingStatementInspector.drain();
+            assertFalse(statements.isEmpty(), query.getKey() + " issued no SQL");
+
+            for (String sql : statements) {
+                String plan = explain(sql);
+                if (plan.contains(".tableScan")) {
+                    scans.add(query.getKey() + ":\n" + plan);
+                }
+            }
+        }
+
+        assertTrue(scans.isEmpty(), "Queries reading whole tables:\n" + String.join("\n\n", scans));
+    }
+
+    private static void consume(Stream<?> rows) {
+        try (rows) {
+            rows.forEach(row -> { });
+        }
+    }
+
+    private String explain(String sql) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    StringBuilder text = new StringBuilder();
+                    while (plan.next()) {
+                        text.append(plan.getString(1));
+                    }
+                    return text.toString();
+                }
+            }
+        });
+    }
+}
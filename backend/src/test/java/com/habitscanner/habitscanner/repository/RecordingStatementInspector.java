@@ -0,0 +1,30 @@
+package com.habitscanner.habitscanner.repository;
+
+import com.habitscanner.habitscanner.config.StatementCountingInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Remembers the SQL Hibernate sends so tests can inspect it.
+ */
+public class RecordingStatementInspector extends StatementCountingInspector {
+
+    private static final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+        return super.inspect(sql);
+    }
+
+    public static List<String> drain() {
+        synchronized (statements) {
+            List<String> drained = new ArrayList<>(statements);
+            statements.clear();
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: the tests commit and roll back transactions of their own
+@SpringBootTest
+class CompletionTimelineCacheTest {
+
+    private static final String USER_ID = "timeline-cache-user";
+
+    @Autowired
+    private HabitFixtures habitFixtures;
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    @Autowired
+    private CompletionTimelineCache completionTimelineCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void writesReachTheCacheWhenTheyCommit() {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Stretch", today.minusDays(30));
+        check(habitId, today);
+        assertTrue(completionTimelineCache.get(habitId).isCompleted(today));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            check(habitId, today.minusDays(1));
+
+            assertTrue(completionTimelineCache.get(habitId).isCompleted(today.minusDays(1)));
+            assertFalse(readElsewhere(habitId, today.minusDays(1)), "uncommitted completion visible to another thread");
+        });
+
+        assertTrue(readElsewhere(habitId, today.minusDays(1)));
+    }
+
+    @Test
+    void rolledBackWritesNeverReachTheCache() {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Stretch", today.minusDays(30));
+        check(habitId, today);
+        assertTrue(completionTimelineCache.get(habitId).isCompleted(today));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            check(habitId, today.minusDays(2));
+            status.setRollbackOnly();
+        });
+
+        assertFalse(readElsewhere(habitId, today.minusDays(2)));
+        assertFalse(completionTimelineCache.get(habitId).isCompleted(today.minusDays(2)));
+    }
+
+    private boolean readElsewhere(Long habitId, LocalDate date) {
+        return CompletableFuture.supplyAsync(() -> completionTimelineCache.get(habitId).isCompleted(date)).join();
+    }
+
+    private void check(Long habitId, LocalDate date) {
+        HabitEntryDTO entry = new HabitEntryDTO();
+        entry.setDate(date);
+        entry.setCompleted(true);
+        assertTrue(habitEntryService.createOrUpdateEntry(habitId, entry, USER_ID).isPresent());
+    }
+}
@@ -0,0 +1,89 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.model.HabitEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionTimelineTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @Test
+    void emptyTimelineHasNoStreaks() {
+        CompletionTimeline timeline = CompletionTimeline.of(List.of());
+
+        assertEquals(0, timeline.longestStreak());
+        assertEquals(0, timeline.streakEndingAt(START));
+        assertNull(timeline.lastCompletedDate());
+    }
+
+    @Test
+    void streaksCrossWordBoundaries() {
+        CompletionTimeline timeline = new CompletionTimeline(START);
+        for (int day = 60; day < 200; day++) {
+            timeline.set(START.plusDays(day), true);
+        }
+
+        assertEquals(140, timeline.longestStreak());
+        assertEquals(140, timeline.streakEndingAt(START.plusDays(199)));
+        assertEquals(5, timeline.streakEndingAt(START.plusDays(64)));
+        assertEquals(0, timeline.streakEndingAt(START.plusDays(200)));
+        assertEquals(START.plusDays(199), timeline.lastCompletedDate());
+    }
+
+    @Test
+    void growsBeforeOrigin() {
+        CompletionTimeline timeline = new CompletionTimeline(START);
+        timeline.set(START, true);
+        timeline.set(START.minusDays(1), true);
+        timeline.set(START.minusDays(100), true);
+
+        assertTrue(timeline.isCompleted(START.minusDays(100)));
+        assertEquals(2, timeline.streakEndingAt(START));
+        assertEquals(2, timeline.longestStreak());
+    }
+
+    @Test
+    void clearingADaySplitsTheStreak() {
+        CompletionTimeline timeline = new CompletionTimeline(START);
+        for (int day = 0; day < 10; day++) {
+            timeline.set(START.plusDays(day), true);
+        }
+        timeline.set(START.plusDays(4), false);
+
+        assertEquals(5, timeline.longestStreak());
+        assertEquals(4, timeline.streakEndingAt(START.plusDays(3)));
+    }
+
+    @Test
+    void agreesWithFullScanOnRandomHistories() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            double density = random.nextDouble();
+            int days = 1 + random.nextInt(1500);
+            List<HabitEntry> entries = new ArrayList<>();
+            List<LocalDate> completedDates = new ArrayList<>();
+            for (int day = 0; day < days; day++) {
+                if (random.nextDouble() < 0.9) {
+                    boolean completed = random.nextDouble() < density;
+                    entries.add(new HabitEntry(null, START.plusDays(day), completed, null));
+                    if (completed) {
+                        completedDates.add(START.plusDays(day));
+                    }
+                }
+            }
+            LocalDate today = START.plusDays(random.nextInt(days + 10));
+
+            CompletionTimeline timeline = CompletionTimeline.of(completedDates);
+
+            assertEquals(HabitStatisticsCalculator.calculateLongestStreak(new ArrayList<>(entries)), timeline.longestStreak());
+            assertEquals(HabitStatisticsCalculator.calculateCurrentStreak(new ArrayList<>(entries), today), timeline.streakEndingAt(today));
+        }
+    }
+}
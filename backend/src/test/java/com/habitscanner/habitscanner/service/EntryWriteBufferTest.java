@@ -0,0 +1,265 @@
+package com.habitscanner.habitscanner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.model.Habit;
+import com.habitscanner.habitscanner.model.HabitEntry;
+import com.habitscanner.habitscanner.model.HabitFrequency;
+import com.habitscanner.habitscanner.model.HistoryFormat;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: flushes write in transactions of their own. The interval is long
+// enough that only the tests flush.
+@SpringBootTest(properties = {
+        "habitscanner.entries.write-behind.enabled=true",
+        "habitscanner.entries.write-behind.flush-interval=PT1H"
+})
+class EntryWriteBufferTest {
+
+    @TempDir
+    static Path journalDir;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("habitscanner.entries.write-behind.journal-dir", () -> journalDir.resolve("context").toString());
+    }
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private HabitFixtures habitFixtures;
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private EntryWriteBuffer entryWriteBuffer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void togglesAreAcknowledgedAndReadBeforeTheyAreWritten() {
+        Long habitId = habitFixtures.createHabit("toggle-user", "Buffered", today);
+        entryWriteBuffer.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(habitEntryService.createOrUpdateEntry(habitId, entry(i % 2 == 0), "toggle-user").isPresent());
+        }
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        List<HabitEntryDTO> buffered = habitEntryService.getEntriesByUserIdAndDate("toggle-user", today);
+        assertEquals(1, buffered.size());
+        assertNull(buffered.get(0).getId());
+        assertTrue(buffered.get(0).getCompleted());
+
+        entryWriteBuffer.flush();
+        assertEquals(1, statistics.getEntityStatistics(HabitEntry.class.getName()).getInsertCount());
+        List<HabitEntryDTO> written = habitEntryService.getEntriesByUserIdAndDate("toggle-user", today);
+        assertNotNull(written.get(0).getId());
+        assertTrue(written.get(0).getCompleted());
+        assertEquals(1, habitService.getHabitById(habitId, "toggle-user").orElseThrow().getCurrentStreak());
+    }
+
+    @Test
+    void pagedReadsWriteBufferedCheckInsFirst() {
+        Long habitId = habitFixtures.createHabit("paging-user", "Buffered", today);
+        habitEntryService.createOrUpdateEntry(habitId, entry(true), "paging-user").orElseThrow();
+
+        List<HabitEntryDTO> page = habitEntryService.getEntriesByHabitId(habitId, "paging-user", null, null).orElseThrow().getEntries();
+        assertEquals(1, page.size());
+        assertNotNull(page.get(0).getId());
+        assertFalse(entryWriteBuffer.hasPending("paging-user"));
+    }
+
+    @Test
+    void readsWriteOnlyTheirUsersCheckIns() {
+        Long readerHabitId = habitFixtures.createHabit("reader-user", "Buffered", today);
+        Long otherHabitId = habitFixtures.createHabit("other-user", "Buffered", today);
+        habitEntryService.createOrUpdateEntry(readerHabitId, entry(true), "reader-user").orElseThrow();
+        habitEntryService.createOrUpdateEntry(otherHabitId, entry(true), "other-user").orElseThrow();
+
+        assertEquals(1, habitEntryService.getEntriesByHabitId(readerHabitId, "reader-user", null, null).orElseThrow().getEntries().size());
+        assertFalse(entryWriteBuffer.hasPending("reader-user"));
+        assertTrue(entryWriteBuffer.hasPending("other-user"));
+        entryWriteBuffer.flush();
+    }
+
+    @Test
+    void habitListStatsAndExportWriteBufferedCheckInsFirst() throws Exception {
+        Long habitId = habitFixtures.createHabit("summary-user", "Buffered", today);
+
+        habitEntryService.createOrUpdateEntry(habitId, entry(true), "summary-user").orElseThrow();
+        assertEquals(1, habitService.getAllHabitsByUserId("summary-user").get(0).getCurrentStreak());
+        assertFalse(entryWriteBuffer.hasPending("summary-user"));
+
+        habitEntryService.createOrUpdateEntry(habitId, entry(false), "summary-user").orElseThrow();
+        assertEquals(0, statsService.getStats("summary-user", today, today).getCompletedEntries());
+        assertFalse(entryWriteBuffer.hasPending("summary-user"));
+
+        habitEntryService.createOrUpdateEntry(habitId, entry(true), "summary-user").orElseThrow();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export("summary-user", HistoryFormat.NDJSON, out);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("\"completed\":true"));
+        assertFalse(entryWriteBuffer.hasPending("summary-user"));
+    }
+
+    @Test
+    void checkInsWrittenForOneUserAreNotReplayed() {
+        Path dir = journalDir.resolve("user-flush");
+        Habit flushed = habit(habitFixtures.createHabit("flushed-user", "Buffered", today), "flushed-user");
+        Habit kept = habit(habitFixtures.createHabit("kept-user", "Buffered", today), "kept-user");
+
+        EntryWriteBuffer buffer = new EntryWriteBuffer(dir, Duration.ofHours(1), new ObjectMapper());
+        ReflectionTestUtils.setField(buffer, "habitEntryService", habitEntryService);
+        buffer.accept(flushed, entry(true), "flushed-user");
+        buffer.accept(kept, entry(true), "kept-user");
+        buffer.flush("flushed-user");
+        assertFalse(buffer.hasPending("flushed-user"));
+        assertTrue(buffer.hasPending("kept-user"));
+
+        EntryWriteBuffer restarted = new EntryWriteBuffer(dir, Duration.ofHours(1), new ObjectMapper());
+        assertFalse(restarted.hasPending("flushed-user"));
+        assertTrue(restarted.hasPending("kept-user"));
+    }
+
+    @Test
+    void concurrentCheckInsAreAllJournaled() throws Exception {
+        Path dir = journalDir.resolve("concurrent");
+        EntryWriteBuffer buffer = new EntryWriteBuffer(dir, Duration.ofHours(1), new ObjectMapper());
+        int threads = 8;
+        int checkIns = 25;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long firstHabitId = t * 100L;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < checkIns; i++) {
+                        buffer.accept(habit(firstHabitId + i, "concurrent-user"), entry(true), "concurrent-user");
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        EntryWriteBuffer restarted = new EntryWriteBuffer(dir, Duration.ofHours(1), new ObjectMapper());
+        assertEquals(threads * checkIns, restarted.readThrough("concurrent-user", today, List::of).size());
+    }
+
+    @Test
+    void deletingAnEntryDropsItsBufferedCheckIn() {
+        Long habitId = habitFixtures.createHabit("delete-user", "Buffered", today);
+        habitEntryService.createOrUpdateEntry(habitId, entry(true), "delete-user").orElseThrow();
+        entryWriteBuffer.flush();
+        Long entryId = habitEntryService.getEntriesByUserIdAndDate("delete-user", today).get(0).getId();
+
+        habitEntryService.createOrUpdateEntry(habitId, entry(false), "delete-user").orElseThrow();
+        assertTrue(habitEntryService.deleteEntry(entryId, "delete-user"));
+        entryWriteBuffer.flush();
+
+        assertTrue(habitEntryService.getEntriesByUserIdAndDate("delete-user", today).isEmpty());
+    }
+
+    @Test
+    void rolledBackWritesKeepBufferedCheckIns() {
+        Long habitId = habitFixtures.createHabit("rollback-user", "Buffered", today);
+        habitEntryService.createOrUpdateEntry(habitId, entry(true), "rollback-user").orElseThrow();
+
+        HabitEntryDTO direct = entry(false);
+        direct.setHabitId(habitId);
+        transactionTemplate.executeWithoutResult(status -> {
+            habitEntryService.createOrUpdateEntries(List.of(direct), "rollback-user").orElseThrow();
+            status.setRollbackOnly();
+        });
+        assertTrue(entryWriteBuffer.hasPending("rollback-user"));
+
+        habitEntryService.createOrUpdateEntries(List.of(direct), "rollback-user").orElseThrow();
+        assertFalse(entryWriteBuffer.hasPending("rollback-user"));
+        assertFalse(habitEntryService.getEntriesByUserIdAndDate("rollback-user", today).get(0).getCompleted());
+    }
+
+    @Test
+    void acknowledgedCheckInsAreReplayedFromTheJournal() throws Exception {
+        Path dir = journalDir.resolve("replay");
+        Habit habit = new Habit("Journaled", null, "journal-user", today, HabitFrequency.DAILY);
+        habit.setId(42L);
+        Habit other = new Habit("Discarded", null, "journal-user", today, HabitFrequency.DAILY);
+        other.setId(43L);
+
+        EntryWriteBuffer crashed = new EntryWriteBuffer(dir, Duration.ofHours(1), new ObjectMapper());
+        crashed.accept(habit, entry(false), "journal-user");
+        crashed.accept(habit, entry(true), "journal-user");
+        crashed.accept(other, entry(true), "journal-user");
+        crashed.discard(43L, List.of(today));
+        // A record torn by the crash, never acknowledged
+        try (Stream<Path> files = Files.list(dir)) {
+            Files.writeString(files.findFirst().orElseThrow(), "{\"userId\":\"journal-us", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        }
+
+        EntryWriteBuffer restarted = new EntryWriteBuffer(dir, Duration.ofHours(1), new ObjectMapper());
+        List<HabitEntryDTO> replayed = restarted.readThrough("journal-user", today, List::of);
+        assertEquals(1, replayed.size());
+        assertEquals(42L, replayed.get(0).getHabitId());
+        assertTrue(replayed.get(0).getCompleted());
+    }
+
+    private HabitEntryDTO entry(boolean completed) {
+        HabitEntryDTO entry = new HabitEntryDTO();
+        entry.setDate(today);
+        entry.setCompleted(completed);
+        return entry;
+    }
+
+    private static Habit habit(Long id, String userId) {
+        Habit habit = new Habit("Buffered", null, userId, LocalDate.now(), HabitFrequency.DAILY);
+        habit.setId(id);
+        return habit;
+    }
+}
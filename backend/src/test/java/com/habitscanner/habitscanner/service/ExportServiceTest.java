@@ -0,0 +1,99 @@
+package com.habitscanner.habitscanner.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.model.HistoryFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class ExportServiceTest {
+
+    private static final String USER_ID = "export-user";
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private HabitFixtures habitFixtures;
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void exportsHabitsThenEntriesAsNdjson() throws Exception {
+        Long read = habitFixtures.createHabit(USER_ID, "Read", today.minusDays(30));
+        Long run = habitFixtures.createHabit(USER_ID, "Run", today.minusDays(30));
+        habitFixtures.createHabit("someone-else", "Other user's habit", today.minusDays(30));
+        write(List.of(item(read, today.minusDays(1), true, null), item(read, today, false, "tired"), item(run, today, true, null)));
+
+        String[] lines = export(HistoryFormat.NDJSON).split("\n");
+
+        assertEquals(5, lines.length);
+        JsonNode habit = objectMapper.readTree(lines[0]);
+        assertEquals("habit", habit.get("type").asText());
+        assertEquals("Read", habit.get("name").asText());
+        assertEquals("DAILY", habit.get("frequency").asText());
+        assertEquals("Run", objectMapper.readTree(lines[1]).get("name").asText());
+
+        JsonNode entry = objectMapper.readTree(lines[3]);
+        assertEquals("entry", entry.get("type").asText());
+        assertEquals("Read", entry.get("habit").asText());
+        assertEquals(today.toString(), entry.get("date").asText());
+        assertFalse(entry.get("completed").asBoolean());
+        assertEquals("tired", entry.get("notes").asText());
+    }
+
+    @Test
+    void exportsEntriesAsCsv() throws Exception {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Read, slowly", today.minusDays(30));
+        write(List.of(item(habitId, today, true, "said \"done\"")));
+
+        assertEquals(
+            "habit,date,completed,notes\n" +
+            "\"Read, slowly\"," + today + ",true,\"said \"\"done\"\"\"\n",
+            export(HistoryFormat.CSV));
+    }
+
+    @Test
+    void exportsNothingForUserWithoutHistory() throws Exception {
+        assertEquals("", export(HistoryFormat.NDJSON));
+        assertEquals("habit,date,completed,notes\n", export(HistoryFormat.CSV));
+    }
+
+    private String export(HistoryFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(USER_ID, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void write(List<HabitEntryDTO> items) {
+        assertTrue(habitEntryService.createOrUpdateEntries(new ArrayList<>(items), USER_ID).isPresent());
+    }
+
+    private HabitEntryDTO item(Long habitId, LocalDate date, boolean completed, String notes) {
+        HabitEntryDTO entry = new HabitEntryDTO();
+        entry.setHabitId(habitId);
+        entry.setDate(date);
+        entry.setCompleted(completed);
+        entry.setNotes(notes);
+        return entry;
+    }
+}
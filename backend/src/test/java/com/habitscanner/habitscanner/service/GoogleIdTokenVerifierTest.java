@@ -0,0 +1,157 @@
+package com.habitscanner.habitscanner.service;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleIdTokenVerifierTest {
+
+    private static final String ISSUER = "https://accounts.google.com";
+    private static final String CLIENT_ID = "test-client";
+
+    private HttpServer jwksServer;
+    private final AtomicReference<JWKSet> publishedKeys = new AtomicReference<>();
+    private final AtomicInteger jwksFetches = new AtomicInteger();
+    private RSAKey signingKey;
+    private String jwksUri;
+    private GoogleIdTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        signingKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        publishedKeys.set(new JWKSet(signingKey.toPublicJWK()));
+
+        // Local stand-in for Google's JWKS endpoint
+        jwksServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        jwksServer.createContext("/certs", exchange -> {
+            jwksFetches.incrementAndGet();
+            byte[] body = publishedKeys.get().toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        jwksServer.start();
+
+        jwksUri = "http://127.0.0.1:" + jwksServer.getAddress().getPort() + "/certs";
+        verifier = new GoogleIdTokenVerifier(jwksUri, CLIENT_ID, Duration.ofHours(1), Duration.ofMinutes(1), Set.of(ISSUER));
+    }
+
+    @AfterEach
+    void tearDown() {
+        verifier.shutdown();
+        jwksServer.stop(0);
+    }
+
+    @Test
+    void acceptsValidToken() throws Exception {
+        TokenIntrospection result = verifier.verify(sign(signingKey, claims().build()));
+
+        assertTrue(result.isValid());
+        assertEquals("1234567890", result.getUserId());
+        assertEquals("user@example.com", result.getEmail());
+        assertNotNull(result.getExpiresAt());
+    }
+
+    @Test
+    void rejectsExpiredToken() throws Exception {
+        JWTClaimsSet expired = claims()
+                .issueTime(Date.from(Instant.now().minus(Duration.ofHours(2))))
+                .expirationTime(Date.from(Instant.now().minus(Duration.ofHours(1))))
+                .build();
+
+        assertFalse(verifier.verify(sign(signingKey, expired)).isValid());
+    }
+
+    @Test
+    void rejectsWrongAudience() throws Exception {
+        assertFalse(verifier.verify(sign(signingKey, claims().audience("other-client").build())).isValid());
+    }
+
+    @Test
+    void rejectsWrongIssuer() throws Exception {
+        assertFalse(verifier.verify(sign(signingKey, claims().issuer("https://evil.example.com").build())).isValid());
+    }
+
+    @Test
+    void rejectsTokenSignedWithUnpublishedKey() throws Exception {
+        RSAKey otherKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+
+        assertFalse(verifier.verify(sign(otherKey, claims().build())).isValid());
+    }
+
+    @Test
+    void picksUpRotatedKeyOnUnknownKeyId() throws Exception {
+        GoogleIdTokenVerifier eagerVerifier =
+                new GoogleIdTokenVerifier(jwksUri, CLIENT_ID, Duration.ofHours(1), Duration.ZERO, Set.of(ISSUER));
+        try {
+            assertTrue(eagerVerifier.verify(sign(signingKey, claims().build())).isValid());
+
+            RSAKey rotatedKey = new RSAKeyGenerator(2048).keyID("key-2").generate();
+            publishedKeys.set(new JWKSet(rotatedKey.toPublicJWK()));
+
+            assertTrue(eagerVerifier.verify(sign(rotatedKey, claims().build())).isValid());
+        } finally {
+            eagerVerifier.shutdown();
+        }
+    }
+
+    @Test
+    void doesNotRefetchForEveryUnknownKeyId() throws Exception {
+        assertTrue(verifier.verify(sign(signingKey, claims().build())).isValid());
+        int fetches = jwksFetches.get();
+
+        RSAKey unknownKey = new RSAKeyGenerator(2048).keyID("forged").generate();
+        for (int i = 0; i < 5; i++) {
+            assertFalse(verifier.verify(sign(unknownKey, claims().build())).isValid());
+        }
+
+        assertTrue(jwksFetches.get() <= fetches + 1);
+    }
+
+    @Test
+    void supportsOnlyCompactJwts() {
+        assertTrue(verifier.supports("a.b.c"));
+        assertFalse(verifier.supports("ya29.opaque-access-token"));
+    }
+
+    private static JWTClaimsSet.Builder claims() {
+        Instant now = Instant.now();
+        return new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .audience(CLIENT_ID)
+                .subject("1234567890")
+                .claim("email", "user@example.com")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofHours(1))));
+    }
+
+    private static String sign(RSAKey key, JWTClaimsSet claims) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
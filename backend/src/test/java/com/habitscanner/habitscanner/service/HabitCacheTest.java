@@ -0,0 +1,125 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.config.CacheConfig;
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: the caches are only filled and evicted when transactions commit
+@SpringBootTest
+class HabitCacheTest {
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private HabitFixtures habitFixtures;
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private UserDataVersions userDataVersions;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void ownershipChecksAreServedFromTheSecondLevelCache() {
+        Long habitId = habitFixtures.createHabit("cache-owner", "Cached", LocalDate.now());
+        statistics.clear();
+
+        HabitEntryDTO entry = new HabitEntryDTO();
+        entry.setDate(LocalDate.now());
+        entry.setCompleted(true);
+        habitEntryService.createOrUpdateEntry(habitId, entry, "cache-owner").orElseThrow();
+
+        entry.setHabitId(habitId);
+        entry.setDate(LocalDate.now().minusDays(1));
+        habitEntryService.createOrUpdateEntries(List.of(entry), "cache-owner").orElseThrow();
+
+        assertTrue(habitService.getHabitById(habitId, "cache-owner").isPresent());
+        assertTrue(habitService.getHabitById(habitId, "someone-else").isEmpty());
+
+        CacheRegionStatistics habits = statistics.getDomainDataRegionStatistics("habits");
+        assertEquals(4, habits.getHitCount());
+        assertEquals(0, habits.getMissCount());
+    }
+
+    @Test
+    void activeHabitListIsCachedUntilAHabitChanges() {
+        Long habitId = habitFixtures.createHabit("cache-lister", "Listed", LocalDate.now());
+        Cache activeHabits = cacheManager.getCache(CacheConfig.ACTIVE_HABITS);
+
+        assertEquals(1, habitService.getAllHabitsByUserId("cache-lister").size());
+        String cachedKey = "cache-lister@" + userDataVersions.version("cache-lister");
+        assertNotNull(activeHabits.get(cachedKey));
+        statistics.clear();
+        assertEquals(1, habitService.getAllHabitsByUserId("cache-lister").size());
+        assertFalse(Arrays.stream(statistics.getQueries()).anyMatch(query -> query.startsWith("SELECT h FROM Habit h")),
+                "listing query ran again");
+
+        HabitDTO changes = new HabitDTO();
+        changes.setName("Renamed");
+        changes.setActive(true);
+        habitService.updateHabit(habitId, changes, "cache-lister").orElseThrow();
+        assertNotEquals(cachedKey, "cache-lister@" + userDataVersions.version("cache-lister"));
+        assertEquals("Renamed", habitService.getAllHabitsByUserId("cache-lister").get(0).getName());
+
+        habitFixtures.createHabit("cache-lister", "Second", LocalDate.now());
+        assertEquals(2, habitService.getAllHabitsByUserId("cache-lister").size());
+
+        assertTrue(habitService.deleteHabit(habitId, "cache-lister"));
+        assertEquals(1, habitService.getAllHabitsByUserId("cache-lister").size());
+    }
+
+    @Test
+    void listReadBeforeACommittedChangeIsNotServedAfterIt() {
+        Long habitId = habitFixtures.createHabit("cache-racer", "Before", LocalDate.now());
+
+        // The reader's put is deferred to its own commit, which lands after the rename's
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals("Before", habitService.getAllHabitsByUserId("cache-racer").get(0).getName());
+
+            CompletableFuture.runAsync(() -> {
+                HabitDTO changes = new HabitDTO();
+                changes.setName("After");
+                changes.setActive(true);
+                habitService.updateHabit(habitId, changes, "cache-racer").orElseThrow();
+            }).join();
+        });
+
+        assertEquals("After", habitService.getAllHabitsByUserId("cache-racer").get(0).getName());
+    }
+}
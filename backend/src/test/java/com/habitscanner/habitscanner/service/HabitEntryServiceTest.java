@@ -0,0 +1,220 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.dto.HabitEntryPageDTO;
+import com.habitscanner.habitscanner.model.HabitEntry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class HabitEntryServiceTest {
+
+    private static final String USER_ID = "batch-user";
+
+    @Autowired
+    private HabitFixtures habitFixtures;
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    @Autowired
+    private HabitStatisticsService habitStatisticsService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void backfillingAMonthIsAHandfulOfStatements() {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Stretch", today.minusDays(60));
+
+        Statistics statistics = startCounting();
+        List<HabitEntryDTO> saved = habitEntryService.createOrUpdateEntries(month(habitId, true), USER_ID).orElseThrow();
+        entityManager.flush();
+
+        // The 30 entries and a monthly rollup for each month they fall in
+        long months = saved.stream().map(entry -> entry.getDate().withDayOfMonth(1)).distinct().count();
+        assertEquals(30, saved.size());
+        assertEquals(30 + months, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "Expected batched writes, got " + statistics.getPrepareStatementCount() + " statements");
+
+        // Rewriting the same days updates in batches as well
+        statistics = startCounting();
+        habitEntryService.createOrUpdateEntries(month(habitId, false), USER_ID).orElseThrow();
+        entityManager.flush();
+
+        // The 30 entries, the habit's statistics summary and its monthly rollups
+        assertEquals(31 + months, statistics.getEntityUpdateCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "Expected batched writes, got " + statistics.getPrepareStatementCount() + " statements");
+        assertTrue(habitStatisticsService.isConsistent(habitId));
+    }
+
+    @Test
+    void batchLoadsOnlyTheDaysItWrites() {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Stretch", today.minusDays(60));
+        habitEntryService.createOrUpdateEntries(month(habitId, true), USER_ID).orElseThrow();
+
+        Statistics statistics = startCounting();
+        habitEntryService.createOrUpdateEntries(List.of(
+            item(habitId, today, false),
+            item(habitId, today.minusDays(29), false)
+        ), USER_ID).orElseThrow();
+
+        // Not the 28 entries between them
+        assertEquals(2, statistics.getEntityStatistics(HabitEntry.class.getName()).getLoadCount());
+        assertTrue(habitStatisticsService.isConsistent(habitId));
+    }
+
+    @Test
+    void laterItemsForTheSameDayWin() {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Stretch", today.minusDays(60));
+
+        habitEntryService.createOrUpdateEntries(List.of(
+            item(habitId, today, true),
+            item(habitId, today, false),
+            item(habitId, today.minusDays(1), true)
+        ), USER_ID).orElseThrow();
+
+        List<HabitEntryDTO> entries = habitEntryService.getEntriesByHabitId(habitId, USER_ID, null, null).orElseThrow().getEntries();
+        assertEquals(2, entries.size());
+        assertFalse(entries.stream().filter(entry -> entry.getDate().equals(today)).findFirst().orElseThrow().getCompleted());
+        assertTrue(habitStatisticsService.isConsistent(habitId));
+    }
+
+    @Test
+    void rejectsBatchNamingAnotherUsersHabit() {
+        Long own = habitFixtures.createHabit(USER_ID, "Stretch", today.minusDays(60));
+        Long foreign = habitFixtures.createHabit("other-user", "Stretch", today.minusDays(60));
+
+        assertTrue(habitEntryService.createOrUpdateEntries(List.of(
+            item(own, today, true),
+            item(foreign, today, true)
+        ), USER_ID).isEmpty());
+        assertTrue(habitEntryService.getEntriesByHabitId(own, USER_ID, null, null).orElseThrow().getEntries().isEmpty());
+    }
+
+    @Test
+    void entryWritesCheckOwnershipInTheirLookup() {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Stretch", today.minusDays(60));
+        HabitEntryDTO entry = item(habitId, today, true);
+        Long entryId = habitEntryService.createOrUpdateEntry(habitId, entry, USER_ID).orElseThrow().getId();
+
+        assertTrue(habitEntryService.createOrUpdateEntry(habitId, entry, "someone-else").isEmpty());
+        assertFalse(habitEntryService.deleteEntry(entryId, "someone-else"));
+
+        Statistics statistics = startCounting();
+        entry.setCompleted(false);
+        assertFalse(habitEntryService.createOrUpdateEntry(habitId, entry, USER_ID).orElseThrow().getCompleted());
+        assertTrue(habitEntryService.deleteEntry(entryId, USER_ID));
+        entityManager.flush();
+
+        // The entry and its habit came with the owner-scoped queries, not from lazy loads
+        assertEquals(0, statistics.getEntityFetchCount());
+        assertTrue(habitEntryService.getEntriesByHabitId(habitId, USER_ID, null, null).orElseThrow().getEntries().isEmpty());
+    }
+
+    @Test
+    void rangeReadIsOneStatementAcrossHabits() {
+        String userId = "range-user";
+        List<HabitEntryDTO> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.addAll(month(habitFixtures.createHabit(userId, "Stretch", today.minusDays(60)), true));
+        }
+        habitEntryService.createOrUpdateEntries(items, userId).orElseThrow();
+
+        Statistics statistics = startCounting();
+        List<HabitEntryDTO> entries = habitEntryService.getEntriesByUserIdAndDateRange(userId, today.minusDays(29), today, null, 200)
+                .orElseThrow()
+                .getEntries();
+
+        assertEquals(150, entries.size());
+        assertEquals("Stretch", entries.get(0).getHabitName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void pagesThroughRangeWithCursor() {
+        String userId = "paging-user";
+        List<HabitEntryDTO> items = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            items.addAll(month(habitFixtures.createHabit(userId, "Stretch", today.minusDays(60)), i % 2 == 0));
+        }
+        habitEntryService.createOrUpdateEntries(items, userId).orElseThrow();
+
+        List<HabitEntryDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            HabitEntryPageDTO page = habitEntryService
+                    .getEntriesByUserIdAndDateRange(userId, today.minusDays(19), today, cursor, 7)
+                    .orElseThrow();
+            assertTrue(page.getEntries().size() <= 7);
+            seen.addAll(page.getEntries());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // 3 habits x 20 days, each entry exactly once, in (date, id) order
+        assertEquals(60, seen.size());
+        assertEquals(9, pages);
+        assertEquals(60, seen.stream().map(HabitEntryDTO::getId).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            HabitEntryDTO previous = seen.get(i - 1);
+            HabitEntryDTO current = seen.get(i);
+            assertTrue(previous.getDate().isBefore(current.getDate())
+                    || (previous.getDate().equals(current.getDate()) && previous.getId() < current.getId()));
+        }
+    }
+
+    @Test
+    void rejectsMalformedCursorAndLimit() {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Stretch", today.minusDays(60));
+
+        assertTrue(habitEntryService.getEntriesByHabitId(habitId, USER_ID, "not-a-cursor", null).isEmpty());
+        assertTrue(habitEntryService.getEntriesByHabitId(habitId, USER_ID, null, 0).isEmpty());
+    }
+
+    private List<HabitEntryDTO> month(Long habitId, boolean completed) {
+        List<HabitEntryDTO> items = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            items.add(item(habitId, today.minusDays(i), completed));
+        }
+        return items;
+    }
+
+    private HabitEntryDTO item(Long habitId, LocalDate date, boolean completed) {
+        HabitEntryDTO entry = new HabitEntryDTO();
+        entry.setHabitId(habitId);
+        entry.setDate(date);
+        entry.setCompleted(completed);
+        return entry;
+    }
+
+    private Statistics startCounting() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,65 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.model.HabitFrequency;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Habits and entries the tests start from, created through the services as a client
+ * would. Picked up by the application's component scan, so tests only autowire it.
+ */
+@Component
+public class HabitFixtures {
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    public static HabitDTO habit(String userId, String name, LocalDate startDate) {
+        HabitDTO habit = new HabitDTO();
+        habit.setName(name);
+        habit.setUserId(userId);
+        habit.setStartDate(startDate);
+        habit.setFrequency(HabitFrequency.DAILY);
+        return habit;
+    }
+
+    public Long createHabit(String userId, String name, LocalDate startDate) {
+        return habitService.createHabit(habit(userId, name, startDate)).getId();
+    }
+
+    /**
+     * {@code count} habits started ten days ago, each with an entry for today and the
+     * {@code days - 1} days before, written in one batch.
+     *
+     * @param completed whether the entry {@code n} days ago is completed
+     */
+    public List<Long> createHabitsWithEntries(String userId, int count, int days, IntPredicate completed) {
+        LocalDate today = LocalDate.now();
+        List<Long> habitIds = new ArrayList<>();
+        List<HabitEntryDTO> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Long habitId = createHabit(userId, "Habit " + i, today.minusDays(10));
+            habitIds.add(habitId);
+
+            for (int day = 0; day < days; day++) {
+                HabitEntryDTO entry = new HabitEntryDTO();
+                entry.setHabitId(habitId);
+                entry.setDate(today.minusDays(day));
+                entry.setCompleted(completed.test(day));
+                entries.add(entry);
+            }
+        }
+        habitEntryService.createOrUpdateEntries(entries, userId).orElseThrow();
+        return habitIds;
+    }
+}
@@ -0,0 +1,72 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.repository.HabitStatisticsRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class HabitServiceTest {
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private HabitFixtures habitFixtures;
+
+    @Autowired
+    private HabitStatisticsRepository habitStatisticsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void listingHabitsIssuesConstantStatementCount() {
+        habitFixtures.createHabitsWithEntries("few-habits-user", 3, 2, day -> true);
+        habitFixtures.createHabitsWithEntries("many-habits-user", 30, 2, day -> true);
+
+        long fewStatements = countStatements(() -> assertEquals(3, habitService.getAllHabitsByUserId("few-habits-user").size()));
+        long manyStatements = countStatements(() -> assertEquals(30, habitService.getAllHabitsByUserId("many-habits-user").size()));
+
+        assertEquals(fewStatements, manyStatements);
+    }
+
+    @Test
+    void listingHabitsWithoutSummariesIssuesConstantStatementCount() {
+        List<Long> few = habitFixtures.createHabitsWithEntries("few-legacy-user", 3, 2, day -> true);
+        List<Long> many = habitFixtures.createHabitsWithEntries("many-legacy-user", 30, 2, day -> true);
+        habitStatisticsRepository.deleteAllById(few);
+        habitStatisticsRepository.deleteAllById(many);
+
+        long fewStatements = countStatements(() -> habitService.getAllHabitsByUserId("few-legacy-user"));
+        long manyStatements = countStatements(() -> habitService.getAllHabitsByUserId("many-legacy-user"));
+
+        assertEquals(fewStatements, manyStatements);
+        HabitDTO habit = habitService.getAllHabitsByUserId("many-legacy-user").get(0);
+        assertEquals(2, habit.getCurrentStreak());
+        assertEquals(100.0, habit.getCompletionRate());
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
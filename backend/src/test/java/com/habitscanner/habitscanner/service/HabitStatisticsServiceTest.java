@@ -0,0 +1,142 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.repository.HabitStatisticsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class HabitStatisticsServiceTest {
+
+    private static final String USER_ID = "statistics-user";
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private HabitFixtures habitFixtures;
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    @Autowired
+    private HabitStatisticsService habitStatisticsService;
+
+    @Autowired
+    private HabitStatisticsRepository habitStatisticsRepository;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void summaryFollowsEntryWrites() {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Read", today.minusDays(30));
+
+        check(habitId, today.minusDays(5), true);
+        check(habitId, today.minusDays(4), false);
+        check(habitId, today.minusDays(2), true);
+        check(habitId, today.minusDays(1), true);
+        check(habitId, today, true);
+
+        HabitDTO habit = habitService.getHabitById(habitId, USER_ID).orElseThrow();
+        assertEquals(3, habit.getCurrentStreak());
+        assertEquals(3, habit.getLongestStreak());
+        assertEquals(80.0, habit.getCompletionRate());
+        assertTrue(habitStatisticsService.isConsistent(habitId));
+
+        // Un-completing today ends the current streak but keeps the longest one
+        check(habitId, today, false);
+        habit = habitService.getHabitById(habitId, USER_ID).orElseThrow();
+        assertEquals(0, habit.getCurrentStreak());
+        assertEquals(2, habit.getLongestStreak());
+        assertEquals(60.0, habit.getCompletionRate());
+        assertTrue(habitStatisticsService.isConsistent(habitId));
+
+        // Deleting an entry removes it from the totals
+        HabitEntryDTO uncompleted = habitEntryService.getEntriesByHabitId(habitId, USER_ID, null, null).orElseThrow().getEntries().stream()
+                .filter(entry -> entry.getDate().equals(today.minusDays(4)))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(habitEntryService.deleteEntry(uncompleted.getId(), USER_ID));
+        habit = habitService.getHabitById(habitId, USER_ID).orElseThrow();
+        assertEquals(75.0, habit.getCompletionRate());
+        assertTrue(habitStatisticsService.isConsistent(habitId));
+    }
+
+    @Test
+    void rebuildsMissingSummaryFromEntries() {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Read", today.minusDays(30));
+        check(habitId, today.minusDays(1), true);
+        check(habitId, today, true);
+
+        habitStatisticsRepository.deleteById(habitId);
+        habitStatisticsRepository.flush();
+        assertFalse(habitStatisticsService.isConsistent(habitId));
+
+        // Reads still work without a summary
+        assertEquals(2, habitService.getHabitById(habitId, USER_ID).orElseThrow().getCurrentStreak());
+
+        assertEquals(1, habitStatisticsService.rebuildMissing());
+        assertTrue(habitStatisticsService.isConsistent(habitId));
+        assertEquals(2, habitService.getHabitById(habitId, USER_ID).orElseThrow().getLongestStreak());
+    }
+
+    // Not in the test's transaction: each write commits on its own thread
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentFirstWritesBuildOneSummary() throws Exception {
+        String userId = "concurrent-statistics-user";
+        Long habitId = habitFixtures.createHabit(userId, "Read", today.minusDays(30));
+        habitStatisticsRepository.deleteById(habitId);
+
+        int writers = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                LocalDate date = today.minusDays(i);
+                writes.add(executor.submit(() -> {
+                    start.await();
+                    check(habitId, date, true, userId);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(habitStatisticsService.isConsistent(habitId));
+        assertEquals(writers, habitService.getHabitById(habitId, userId).orElseThrow().getCurrentStreak());
+    }
+
+    private void check(Long habitId, LocalDate date, boolean completed) {
+        check(habitId, date, completed, USER_ID);
+    }
+
+    private void check(Long habitId, LocalDate date, boolean completed, String userId) {
+        HabitEntryDTO entry = new HabitEntryDTO();
+        entry.setDate(date);
+        entry.setCompleted(completed);
+        assertTrue(habitEntryService.createOrUpdateEntry(habitId, entry, userId).isPresent());
+    }
+}
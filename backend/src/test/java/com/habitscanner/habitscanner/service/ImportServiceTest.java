@@ -0,0 +1,194 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.dto.ImportJobDTO;
+import com.habitscanner.habitscanner.model.HabitFrequency;
+import com.habitscanner.habitscanner.model.HistoryFormat;
+import com.habitscanner.habitscanner.model.ImportStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: every batch commits on its own, as in production
+@SpringBootTest(properties = "habitscanner.import.batch-size=3")
+class ImportServiceTest {
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    @Autowired
+    private HabitStatisticsService habitStatisticsService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void importOfAnExportReproducesIt() throws Exception {
+        String source = "import-source";
+        HabitDTO read = new HabitDTO();
+        read.setName("Read");
+        read.setDescription("Ten pages");
+        read.setUserId(source);
+        read.setStartDate(today.minusDays(20));
+        read.setFrequency(HabitFrequency.WEEKLY);
+        Long readId = habitService.createHabit(read).getId();
+
+        List<HabitEntryDTO> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            HabitEntryDTO entry = new HabitEntryDTO();
+            entry.setHabitId(readId);
+            entry.setDate(today.minusDays(i));
+            entry.setCompleted(i % 3 != 0);
+            entry.setNotes(i == 4 ? "with \"quotes\", and commas" : null);
+            items.add(entry);
+        }
+        habitEntryService.createOrUpdateEntries(items, source).orElseThrow();
+        String exported = export(source, HistoryFormat.NDJSON);
+
+        ImportJobDTO job = importFile("import-target", HistoryFormat.NDJSON, exported);
+
+        assertEquals(ImportStatus.COMPLETED, job.getStatus());
+        assertEquals(11, job.getRowsCommitted());
+        assertEquals(exported, export("import-target", HistoryFormat.NDJSON));
+        HabitDTO imported = habitService.getAllHabitsByUserId("import-target").get(0);
+        assertEquals(HabitFrequency.WEEKLY, imported.getFrequency());
+        assertTrue(habitStatisticsService.isConsistent(imported.getId()));
+    }
+
+    @Test
+    void csvImportCreatesHabitsAndUpserts() throws Exception {
+        String userId = "csv-import-user";
+        String csv = "habit,date,completed,notes\n" +
+                "Run," + today.minusDays(1) + ",true,\n" +
+                "Run," + today + ",false,\"rain, again\"\n" +
+                "Stretch," + today + ",true,\n" +
+                "Run," + today + ",true,\n";
+
+        ImportJobDTO job = importFile(userId, HistoryFormat.CSV, csv);
+
+        assertEquals(ImportStatus.COMPLETED, job.getStatus());
+        List<HabitDTO> habits = habitService.getAllHabitsByUserId(userId);
+        assertEquals(2, habits.size());
+        HabitDTO run = habits.stream().filter(habit -> habit.getName().equals("Run")).findFirst().orElseThrow();
+        assertEquals(2, run.getCurrentStreak());
+        assertTrue(habitStatisticsService.isConsistent(run.getId()));
+    }
+
+    @Test
+    void failedImportResumesAfterCommittedRows() throws Exception {
+        String userId = "resume-user";
+        StringBuilder good = new StringBuilder("habit,date,completed,notes\n");
+        for (int i = 0; i < 10; i++) {
+            good.append("Walk,").append(today.minusDays(i)).append(",true,\n");
+        }
+        String broken = good.toString().replace(today.minusDays(7).toString(), "not-a-date");
+
+        ImportJobDTO created = importService.createJob(userId, HistoryFormat.CSV);
+        assertEquals(ImportStatus.RUNNING, importService.getJob(created.getId(), userId).orElseThrow().getStatus());
+
+        ImportJobDTO failed = importService.importHistory(userId, created.getId(), stream(broken)).orElseThrow();
+
+        assertEquals(created.getId(), failed.getId());
+        assertEquals(ImportStatus.FAILED, failed.getStatus());
+        assertEquals("Row 8: invalid date 'not-a-date'", failed.getError());
+        assertEquals(6, failed.getRowsCommitted());
+        assertEquals(ImportStatus.FAILED, importService.getJob(failed.getId(), userId).orElseThrow().getStatus());
+        assertTrue(importService.getJob(failed.getId(), "someone-else").isEmpty());
+        assertTrue(importService.importHistory("someone-else", failed.getId(), stream(good.toString())).isEmpty());
+
+        ImportJobDTO resumed = importService.importHistory(userId, failed.getId(), stream(good.toString())).orElseThrow();
+
+        assertEquals(ImportStatus.COMPLETED, resumed.getStatus());
+        assertEquals(failed.getId(), resumed.getId());
+        assertEquals(10, resumed.getRowsCommitted());
+        HabitDTO walk = habitService.getAllHabitsByUserId(userId).get(0);
+        assertEquals(10, walk.getCurrentStreak());
+
+        // A completed job cannot be resumed again
+        assertNull(importService.importHistory(userId, failed.getId(), stream(good.toString())).orElse(null));
+    }
+
+    @Test
+    void secondUploadOfARunningJobIsRefused() throws Exception {
+        String userId = "concurrent-import-user";
+        Long jobId = importService.createJob(userId, HistoryFormat.CSV).getId();
+        String csv = "habit,date,completed,notes\nRow," + today + ",true,\n";
+
+        // Holds the first upload open until the second one has been answered
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream held = new FilterInputStream(stream(csv)) {
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Optional<ImportJobDTO>> first = executor.submit(() -> importService.importHistory(userId, jobId, held));
+            assertTrue(reading.await(30, TimeUnit.SECONDS));
+
+            ImportJobDTO refused = importService.importHistory(userId, jobId, stream(csv)).orElseThrow();
+            assertEquals(ImportStatus.RUNNING, refused.getStatus());
+            assertEquals(0, refused.getRowsCommitted());
+
+            release.countDown();
+            ImportJobDTO completed = first.get(30, TimeUnit.SECONDS).orElseThrow();
+            assertEquals(ImportStatus.COMPLETED, completed.getStatus());
+            assertEquals(1, completed.getRowsCommitted());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private ImportJobDTO importFile(String userId, HistoryFormat format, String content) {
+        Long jobId = importService.createJob(userId, format).getId();
+        return importService.importHistory(userId, jobId, stream(content)).orElseThrow();
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String export(String userId, HistoryFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(userId, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.model.HabitEntry;
+import com.habitscanner.habitscanner.model.MonthlyRollup;
+import com.habitscanner.habitscanner.model.MonthlyRollupId;
+import com.habitscanner.habitscanner.repository.HabitCompletionCount;
+import com.habitscanner.habitscanner.repository.HabitEntryRepository;
+import com.habitscanner.habitscanner.repository.MonthlyRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MonthlyRollupServiceTest {
+
+    private static final String USER_ID = "rollup-user";
+
+    @Autowired
+    private HabitFixtures habitFixtures;
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    // Crosses a leap day and months of 29, 30 and 31 days
+    private final LocalDate firstDay = LocalDate.of(2024, 1, 10);
+    private final LocalDate lastDay = LocalDate.of(2024, 5, 20);
+
+    @Test
+    void rangeCountsMatchTheDailyEntries() {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Walk", firstDay);
+        List<HabitEntryDTO> entries = new ArrayList<>();
+        for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+            entries.add(entry(habitId, date, date.getDayOfMonth() % 3 != 0));
+        }
+        habitEntryService.createOrUpdateEntries(entries, USER_ID).orElseThrow();
+
+        // Toggled and deleted days must leave the bitmasks as well as the counts
+        check(habitId, LocalDate.of(2024, 2, 29), false);
+        check(habitId, LocalDate.of(2024, 3, 3), true);
+        HabitEntryDTO deleted = habitEntryService.getEntriesByUserIdAndDate(USER_ID, LocalDate.of(2024, 3, 31)).get(0);
+        assertTrue(habitEntryService.deleteEntry(deleted.getId(), USER_ID));
+
+        assertCounts(habitId, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 4, 10));
+        assertCounts(habitId, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 31));
+        assertCounts(habitId, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 4, 12));
+        assertCounts(habitId, LocalDate.of(2024, 2, 5), LocalDate.of(2024, 2, 29));
+        assertCounts(habitId, LocalDate.of(2024, 3, 20), LocalDate.of(2024, 4, 5));
+        assertCounts(habitId, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        assertCounts(habitId, LocalDate.of(2024, 4, 5), LocalDate.of(2024, 3, 20));
+
+        MonthlyRollup march = monthlyRollupRepository.findById(new MonthlyRollupId(habitId, LocalDate.of(2024, 3, 1))).orElseThrow();
+        assertEquals(0, march.getEntryDays() & (1 << 30));
+        assertEquals(1 << 2, march.getCompletedDays() & (1 << 2));
+        assertEquals(30, march.getEntryCount());
+        assertEquals(Integer.bitCount(march.getCompletedDays()), march.getCompletedCount());
+    }
+
+    @Test
+    void rebuildMatchesTheIncrementalRollups() {
+        Long habitId = habitFixtures.createHabit(USER_ID, "Walk", firstDay);
+        for (LocalDate date = LocalDate.of(2024, 2, 20); date.isBefore(LocalDate.of(2024, 3, 10)); date = date.plusDays(1)) {
+            check(habitId, date, date.getDayOfMonth() % 2 == 0);
+        }
+        check(habitId, LocalDate.of(2024, 3, 2), false);
+        List<int[]> written = masks(habitId);
+
+        monthlyRollupService.rebuild(habitId);
+        List<int[]> rebuilt = masks(habitId);
+
+        assertEquals(2, rebuilt.size());
+        for (int i = 0; i < rebuilt.size(); i++) {
+            assertArrayEquals(written.get(i), rebuilt.get(i));
+        }
+    }
+
+    private void assertCounts(Long habitId, LocalDate startDate, LocalDate endDate) {
+        List<HabitEntry> days = habitEntryRepository.findByHabitId(habitId).stream()
+                .filter(entry -> !entry.getDate().isBefore(startDate) && !entry.getDate().isAfter(endDate))
+                .toList();
+        long completed = days.stream().filter(HabitEntry::getCompleted).count();
+
+        Map<Long, HabitCompletionCount> counts = monthlyRollupService.countEntriesByHabit(USER_ID, startDate, endDate);
+        HabitCompletionCount count = counts.get(habitId);
+        assertEquals(days.size(), count != null ? count.getTotal() : 0, startDate + ".." + endDate);
+        assertEquals(completed, count != null ? count.getCompleted() : 0, startDate + ".." + endDate);
+        assertEquals(completed, monthlyRollupService.countCompletedEntries(USER_ID, startDate, endDate), startDate + ".." + endDate);
+    }
+
+    private List<int[]> masks(Long habitId) {
+        return monthlyRollupRepository.findByHabitId(habitId).stream()
+                .sorted((a, b) -> a.getMonthStart().compareTo(b.getMonthStart()))
+                .map(rollup -> new int[] {rollup.getEntryDays(), rollup.getCompletedDays(), rollup.getEntryCount(), rollup.getCompletedCount()})
+                .toList();
+    }
+
+    private HabitEntryDTO entry(Long habitId, LocalDate date, boolean completed) {
+        HabitEntryDTO entry = new HabitEntryDTO();
+        entry.setHabitId(habitId);
+        entry.setDate(date);
+        entry.setCompleted(completed);
+        return entry;
+    }
+
+    private void check(Long habitId, LocalDate date, boolean completed) {
+        assertTrue(habitEntryService.createOrUpdateEntry(habitId, entry(habitId, date, completed), USER_ID).isPresent());
+    }
+}
@@ -0,0 +1,90 @@
+package com.habitscanner.habitscanner.service;
+
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.dto.HabitStatsDTO;
+import com.habitscanner.habitscanner.dto.StatsDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class StatsServiceTest {
+
+    private static final String USER_ID = "stats-user";
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private HabitFixtures habitFixtures;
+
+    @Autowired
+    private HabitEntryService habitEntryService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void aggregatesEntriesInRangePerHabit() {
+        Long read = habitFixtures.createHabit(USER_ID, "Read", today.minusDays(30));
+        Long run = habitFixtures.createHabit(USER_ID, "Run", today.minusDays(30));
+        habitFixtures.createHabit(USER_ID, "Unused", today.minusDays(30));
+
+        check(read, today.minusDays(2), true);
+        check(read, today.minusDays(1), true);
+        check(read, today, false);
+        check(run, today, true);
+        // Outside the range
+        check(run, today.minusDays(10), true);
+
+        StatsDTO stats = statsService.getStats(USER_ID, today.minusDays(2), today);
+
+        assertEquals(4, stats.getTotalEntries());
+        assertEquals(3, stats.getCompletedEntries());
+        assertEquals(75.0, stats.getCompletionRate());
+        assertEquals(2, stats.getBestStreak());
+        assertEquals(3, stats.getHabitStats().size());
+
+        HabitStatsDTO readStats = find(stats, read);
+        assertEquals(2, readStats.getCompleted());
+        assertEquals(3, readStats.getTotal());
+        assertEquals(2, readStats.getLongestStreak());
+
+        HabitStatsDTO runStats = find(stats, run);
+        assertEquals(1, runStats.getCompleted());
+        assertEquals(1, runStats.getTotal());
+        assertEquals(100.0, runStats.getRate());
+
+        HabitStatsDTO unused = stats.getHabitStats().stream()
+                .filter(habit -> habit.getName().equals("Unused"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(0, unused.getTotal());
+        assertEquals(0.0, unused.getRate());
+    }
+
+    @Test
+    void rejectsUnknownPeriod() {
+        assertTrue(statsService.getStatsForPeriod(USER_ID, "decade").isEmpty());
+        assertTrue(statsService.getStatsForPeriod(USER_ID, "month").isPresent());
+    }
+
+    private HabitStatsDTO find(StatsDTO stats, Long habitId) {
+        return stats.getHabitStats().stream()
+                .filter(habit -> habit.getId().equals(habitId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void check(Long habitId, LocalDate date, boolean completed) {
+        HabitEntryDTO entry = new HabitEntryDTO();
+        entry.setDate(date);
+        entry.setCompleted(completed);
+        assertTrue(habitEntryService.createOrUpdateEntry(habitId, entry, USER_ID).isPresent());
+    }
+}
@@ -0,0 +1,159 @@
+package com.habitscanner.habitscanner.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenInfoClientTest {
+
+    private static final String VALID = "{\"user_id\":\"1234567890\",\"email\":\"user@example.com\",\"expires_in\":3599}";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String tokenInfoUri;
+
+    // Behaviour of the stub, changed by each test
+    private volatile int status = 200;
+    private volatile long latencyMillis;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Local stand-in for Google's tokeninfo endpoint
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/tokeninfo", exchange -> {
+            calls.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(latencyMillis);
+                byte[] body = (status == 200 ? VALID : "{\"error\":\"invalid_token\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        tokenInfoUri = "http://127.0.0.1:" + server.getAddress().getPort() + "/tokeninfo";
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void parsesValidToken() {
+        TokenIntrospection result = client(10, 5, Duration.ofSeconds(30)).introspect("token").join();
+
+        assertTrue(result.isValid());
+        assertEquals("1234567890", result.getUserId());
+        assertEquals("user@example.com", result.getEmail());
+        assertNotNull(result.getExpiresAt());
+    }
+
+    @Test
+    void rejectedTokenIsInvalidAndDoesNotTripTheBreaker() {
+        status = 400;
+        TokenInfoClient client = client(10, 2, Duration.ofSeconds(30));
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(client.introspect("token-" + i).join());
+        }
+        assertEquals(5, calls.get());
+        assertFalse(client.isCircuitOpen());
+    }
+
+    @Test
+    void slowResponseTimesOut() {
+        latencyMillis = 2000;
+        TokenInfoClient client = client(10, 5, Duration.ofSeconds(30));
+
+        long start = System.nanoTime();
+        assertNull(client.introspect("token").join());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1500, "Did not wait for the slow stub");
+    }
+
+    @Test
+    void repeatedFailuresOpenTheBreakerUntilATrialSucceeds() throws Exception {
+        status = 503;
+        TokenInfoClient client = client(10, 3, Duration.ofMillis(300));
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(client.introspect("token-" + i).join());
+        }
+        assertTrue(client.isCircuitOpen());
+
+        // Open: fails fast without calling Google
+        assertNull(client.introspect("token-open").join());
+        assertEquals(3, calls.get());
+
+        // After the open duration one trial call goes through and closes it
+        status = 200;
+        Thread.sleep(400);
+        assertTrue(client.introspect("token-trial").join().isValid());
+        assertFalse(client.isCircuitOpen());
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void failedTrialReopensTheBreaker() throws Exception {
+        status = 500;
+        TokenInfoClient client = client(10, 1, Duration.ofMillis(200));
+
+        assertNull(client.introspect("token").join());
+        Thread.sleep(300);
+        assertNull(client.introspect("token-trial").join());
+        assertNull(client.introspect("token-after-trial").join());
+
+        assertEquals(2, calls.get());
+        assertTrue(client.isCircuitOpen());
+    }
+
+    @Test
+    void bulkheadLimitsConcurrentCalls() {
+        latencyMillis = 300;
+        TokenInfoClient client = client(2, 5, Duration.ofSeconds(30));
+
+        List<CompletableFuture<TokenIntrospection>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(client.introspect("token-" + i));
+        }
+
+        long valid = results.stream().map(CompletableFuture::join).filter(result -> result != null && result.isValid()).count();
+        assertEquals(2, valid);
+        assertEquals(2, calls.get());
+        assertTrue(maxInFlight.get() <= 2);
+        assertFalse(client.isCircuitOpen());
+    }
+
+    private TokenInfoClient client(int maxConcurrentCalls, int failureThreshold, Duration openDuration) {
+        return new TokenInfoClient(tokenInfoUri, Duration.ofSeconds(1), Duration.ofMillis(500),
+                maxConcurrentCalls, failureThreshold, openDuration, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,51 @@
+package com.habitscanner.benchmarks;
+
+import com.habitscanner.habitscanner.HabitscannerApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the backend on a private in-memory database, without a web server for
+ * benchmarks that go through the service and repository layers, or with one on a
+ * random port for benchmarks that go through HTTP.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {}
+
+    /**
+     * @param args extra {@code --name=value} settings, overriding application.properties
+     */
+    static ConfigurableApplicationContext start(String... args) {
+        return run(WebApplicationType.NONE, args);
+    }
+
+    /**
+     * Like {@link #start(String...)} with an embedded web server; its port is in the
+     * {@code local.server.port} property.
+     */
+    static ConfigurableApplicationContext startServer(String... args) {
+        List<String> settings = new ArrayList<>(List.of(args));
+        settings.add(0, "--server.port=0");
+        return run(WebApplicationType.SERVLET, settings.toArray(new String[0]));
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType type, String... args) {
+        List<String> settings = new ArrayList<>(List.of(
+            "--spring.datasource.url=jdbc:h2:mem:benchmark-${random.uuid}",
+            "--spring.jpa.show-sql=false",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--logging.level.com.habitscanner=WARN",
+            "--logging.level.org.springframework.security=WARN"
+        ));
+        settings.addAll(List.of(args));
+        return new SpringApplicationBuilder(HabitscannerApplication.class)
+                .web(type)
+                .run(settings.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,127 @@
+package com.habitscanner.benchmarks;
+
+import com.habitscanner.habitscanner.HabitscannerApplication;
+import com.habitscanner.habitscanner.model.HabitFrequency;
+import com.habitscanner.habitscanner.service.HabitStatisticsService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the durable database with synthetic users, habits and daily entries, to
+ * measure startup and queries against realistic data sizes:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.habitscanner.benchmarks.DatasetSeeder \
+ *     --habitscanner.data-dir=./data --seed.users=1000 --seed.habits-per-user=5 --seed.days=730
+ * </pre>
+ *
+ * The defaults above make 5,000 habits and about 3.65 million entries. Rows are
+ * appended after any already in the database, written with JDBC batches rather than
+ * through the services, and the statistics summaries of the new habits are built at
+ * the end. Entries are completed with probability {@code --seed.density} (0.7).
+ */
+public final class DatasetSeeder {
+
+    private static final int BATCH_SIZE = 1000;
+    // Matches the entities' allocationSize
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private DatasetSeeder() {}
+
+    public static void main(String[] args) {
+        List<String> settings = new ArrayList<>(List.of(
+            "--spring.main.banner-mode=off",
+            "--habitscanner.statistics.rebuild-on-startup=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.habitscanner=WARN",
+            "--logging.level.org.springframework.security=WARN"
+        ));
+        settings.addAll(List.of(args));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HabitscannerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("durable")
+                .run(settings.toArray(new String[0]))) {
+            Environment environment = context.getEnvironment();
+            int users = environment.getProperty("seed.users", Integer.class, 1000);
+            int habitsPerUser = environment.getProperty("seed.habits-per-user", Integer.class, 5);
+            int days = environment.getProperty("seed.days", Integer.class, 730);
+            double density = environment.getProperty("seed.density", Double.class, 0.7);
+
+            long started = System.nanoTime();
+            long entries = seed(context.getBean(JdbcTemplate.class), users, habitsPerUser, days, density);
+            System.out.printf("Inserted %d habits and %d entries in %d s%n",
+                    (long) users * habitsPerUser, entries, (System.nanoTime() - started) / 1_000_000_000L);
+
+            started = System.nanoTime();
+            int summaries = context.getBean(HabitStatisticsService.class).rebuildMissing();
+            System.out.printf("Built %d statistics summaries in %d s%n", summaries, (System.nanoTime() - started) / 1_000_000_000L);
+        }
+    }
+
+    private static long seed(JdbcTemplate jdbc, int users, int habitsPerUser, int days, double density) {
+        long firstHabitId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM habits", Long.class) + 1;
+        long nextEntryId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM habit_entries", Long.class) + 1;
+        int userOffset = jdbc.queryForObject("SELECT COUNT(DISTINCT user_id) FROM habits WHERE user_id LIKE 'seed-user-%'", Integer.class);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = today.minusDays(days - 1L);
+
+        List<Object[]> habits = new ArrayList<>();
+        List<Object[]> entries = new ArrayList<>();
+        long entryCount = 0;
+        long habitId = firstHabitId;
+        for (int user = 0; user < users; user++) {
+            String userId = "seed-user-" + (userOffset + user);
+            for (int i = 0; i < habitsPerUser; i++, habitId++) {
+                habits.add(new Object[] {habitId, "Habit " + i, userId, Date.valueOf(startDate), now, now,
+                        HabitFrequency.DAILY.name(), true});
+
+                Random random = new Random(habitId);
+                for (LocalDate date = startDate; !date.isAfter(today); date = date.plusDays(1)) {
+                    entries.add(new Object[] {nextEntryId++, habitId, Date.valueOf(date), random.nextDouble() < density, now, now});
+                    entryCount++;
+                    if (entries.size() == BATCH_SIZE) {
+                        // Habits go first so the entries' foreign keys resolve
+                        insertHabits(jdbc, habits);
+                        insertEntries(jdbc, entries);
+                    }
+                }
+            }
+        }
+        insertHabits(jdbc, habits);
+        insertEntries(jdbc, entries);
+
+        // Past the inserted ids: the pooled optimizer hands out the increment-sized block
+        // ending at the sequence value it reads
+        jdbc.execute("ALTER SEQUENCE habits_seq RESTART WITH " + (habitId - 1 + SEQUENCE_INCREMENT));
+        jdbc.execute("ALTER SEQUENCE habit_entries_seq RESTART WITH " + (nextEntryId - 1 + SEQUENCE_INCREMENT));
+        return entryCount;
+    }
+
+    private static void insertHabits(JdbcTemplate jdbc, List<Object[]> habits) {
+        if (!habits.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO habits (id, name, user_id, start_date, created_at, updated_at, frequency, active) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", habits);
+            habits.clear();
+        }
+    }
+
+    private static void insertEntries(JdbcTemplate jdbc, List<Object[]> entries) {
+        if (!entries.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO habit_entries (id, habit_id, date, completed, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)", entries);
+            entries.clear();
+        }
+    }
+}
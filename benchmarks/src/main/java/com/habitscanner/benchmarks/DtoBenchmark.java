@@ -0,0 +1,132 @@
+package com.habitscanner.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.model.Habit;
+import com.habitscanner.habitscanner.model.HabitEntry;
+import com.habitscanner.habitscanner.service.CompletionTimeline;
+import com.habitscanner.habitscanner.service.HabitStatisticsCalculator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Response building for a synthetic history, without the database:
+ *
+ * <ul>
+ *   <li>{@code convertEntries}: mapping every {@link HabitEntry} of the history to a
+ *       {@link HabitEntryDTO}, as the service's entity path does</li>
+ *   <li>{@code convertHabits}: building the {@link HabitDTO}s of a habit list and
+ *       filling their statistics from each habit's timeline</li>
+ *   <li>{@code serializeEntries}, {@code serializeHabits}: writing those lists as JSON
+ *       with an {@link ObjectMapper} configured like Spring Boot's</li>
+ * </ul>
+ *
+ * Run with {@code -prof gc} to compare allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoBenchmark {
+
+    private static final int HABITS = 20;
+
+    @Param({"1", "5", "10"})
+    public int years;
+
+    @Param({"0.3", "0.9"})
+    public double density;
+
+    private ObjectMapper objectMapper;
+    private List<HabitEntry> entries;
+    private List<HabitEntryDTO> entryDTOs;
+    private List<Habit> habits;
+    private List<CompletionTimeline> timelines;
+    private int[] completedCounts;
+    private List<HabitDTO> habitDTOs;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        today = LocalDate.now();
+
+        entries = SyntheticHistory.dailyEntries(SyntheticHistory.habit(1, years), years, density);
+        entryDTOs = convertEntries();
+
+        habits = new ArrayList<>();
+        timelines = new ArrayList<>();
+        completedCounts = new int[HABITS];
+        for (int i = 0; i < HABITS; i++) {
+            Habit habit = SyntheticHistory.habit(i + 1, years);
+            List<LocalDate> completedDates = SyntheticHistory.dailyEntries(habit, years, density).stream()
+                    .filter(HabitEntry::getCompleted)
+                    .map(HabitEntry::getDate)
+                    .collect(Collectors.toList());
+            habits.add(habit);
+            timelines.add(CompletionTimeline.of(completedDates));
+            completedCounts[i] = completedDates.size();
+        }
+        habitDTOs = convertHabits();
+    }
+
+    @Benchmark
+    public List<HabitEntryDTO> convertEntries() {
+        return entries.stream()
+                .map(entry -> new HabitEntryDTO(
+                    entry.getId(),
+                    entry.getHabit().getId(),
+                    entry.getHabit().getName(),
+                    entry.getDate(),
+                    entry.getCompleted(),
+                    entry.getNotes(),
+                    entry.getCreatedAt(),
+                    entry.getUpdatedAt()
+                ))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<HabitDTO> convertHabits() {
+        List<HabitDTO> dtos = new ArrayList<>(habits.size());
+        for (int i = 0; i < habits.size(); i++) {
+            Habit habit = habits.get(i);
+            CompletionTimeline timeline = timelines.get(i);
+            HabitDTO dto = new HabitDTO(
+                habit.getId(),
+                habit.getName(),
+                habit.getDescription(),
+                habit.getUserId(),
+                habit.getStartDate(),
+                habit.getCreatedAt(),
+                habit.getUpdatedAt(),
+                habit.getFrequency(),
+                habit.getActive()
+            );
+            dto.setCurrentStreak(timeline.streakEndingAt(today));
+            dto.setLongestStreak(timeline.longestStreak());
+            dto.setCompletionRate(HabitStatisticsCalculator.completionRate(completedCounts[i], entries.size()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public byte[] serializeEntries() throws Exception {
+        return objectMapper.writeValueAsBytes(entryDTOs);
+    }
+
+    @Benchmark
+    public byte[] serializeHabits() throws Exception {
+        return objectMapper.writeValueAsBytes(habitDTOs);
+    }
+}
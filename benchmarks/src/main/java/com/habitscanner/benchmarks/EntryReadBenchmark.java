@@ -0,0 +1,149 @@
+package com.habitscanner.benchmarks;
+
+import com.habitscanner.habitscanner.dto.HabitDTO;
+import com.habitscanner.habitscanner.dto.HabitEntryDTO;
+import com.habitscanner.habitscanner.dto.HabitEntryPageDTO;
+import com.habitscanner.habitscanner.model.HabitEntry;
+import com.habitscanner.habitscanner.model.HabitFrequency;
+import com.habitscanner.habitscanner.service.HabitEntryService;
+import com.habitscanner.habitscanner.service.HabitService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reading a 10k-entry date range through an in-memory H2 backend:
+ *
+ * <ul>
+ *   <li>{@code entities}: the former path, loading managed {@link HabitEntry} rows and
+ *       lazy-loading each entry's habit while converting to DTOs</li>
+ *   <li>{@code projection}: the DTO projection query the /range endpoint uses, walking
+ *       every page of the maximum size</li>
+ *   <li>{@code firstPage}, {@code deepPage}: one default-size page at the start and at
+ *       the end of the range, through the keyset cursor</li>
+ * </ul>
+ *
+ * Run with {@code -prof gc} to compare allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntryReadBenchmark {
+
+    private static final String USER_ID = "benchmark-user";
+    private static final int HABITS = 20;
+    private static final int DAYS = 500;
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private HabitEntryService habitEntryService;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        habitEntryService = context.getBean(HabitEntryService.class);
+        HabitService habitService = context.getBean(HabitService.class);
+
+        endDate = LocalDate.now();
+        startDate = endDate.minusDays(DAYS - 1);
+
+        List<HabitEntryDTO> items = new ArrayList<>();
+        for (int i = 0; i < HABITS; i++) {
+            HabitDTO habit = new HabitDTO();
+            habit.setName("Habit " + i);
+            habit.setUserId(USER_ID);
+            habit.setStartDate(startDate);
+            habit.setFrequency(HabitFrequency.DAILY);
+            Long habitId = habitService.createHabit(habit).getId();
+
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                HabitEntryDTO entry = new HabitEntryDTO();
+                entry.setHabitId(habitId);
+                entry.setDate(date);
+                entry.setCompleted(date.getDayOfMonth() % 3 != 0);
+                items.add(entry);
+            }
+        }
+        habitEntryService.createOrUpdateEntries(items, USER_ID).orElseThrow();
+
+        // Cursor of the last page
+        HabitEntryPageDTO page = habitEntryService.getEntriesByUserIdAndDateRange(USER_ID, startDate, endDate, null, PAGE_SIZE).orElseThrow();
+        while (page.getNextCursor() != null) {
+            deepCursor = page.getNextCursor();
+            page = habitEntryService.getEntriesByUserIdAndDateRange(USER_ID, startDate, endDate, deepCursor, PAGE_SIZE).orElseThrow();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<HabitEntryDTO> entities() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<HabitEntry> entries = entityManager.createQuery(
+                    "SELECT he FROM HabitEntry he WHERE he.habit.userId = :userId AND he.date BETWEEN :startDate AND :endDate",
+                    HabitEntry.class)
+                    .setParameter("userId", USER_ID)
+                    .setParameter("startDate", startDate)
+                    .setParameter("endDate", endDate)
+                    .getResultList();
+            return entries.stream()
+                    .map(entry -> new HabitEntryDTO(
+                        entry.getId(),
+                        entry.getHabit().getId(),
+                        entry.getHabit().getName(),
+                        entry.getDate(),
+                        entry.getCompleted(),
+                        entry.getNotes(),
+                        entry.getCreatedAt(),
+                        entry.getUpdatedAt()
+                    ))
+                    .collect(Collectors.toList());
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public List<HabitEntryDTO> projection() {
+        List<HabitEntryDTO> entries = new ArrayList<>();
+        String cursor = null;
+        do {
+            HabitEntryPageDTO page = habitEntryService
+                    .getEntriesByUserIdAndDateRange(USER_ID, startDate, endDate, cursor, MAX_PAGE_SIZE)
+                    .orElseThrow();
+            entries.addAll(page.getEntries());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return entries;
+    }
+
+    @Benchmark
+    public HabitEntryPageDTO firstPage() {
+        return habitEntryService.getEntriesByUserIdAndDateRange(USER_ID, startDate, endDate, null, PAGE_SIZE).orElseThrow();
+    }
+
+    @Benchmark
+    public HabitEntryPageDTO deepPage() {
+        return habitEntryService.getEntriesByUserIdAndDateRange(USER_ID, startDate, endDate, deepCursor, PAGE_SIZE).orElseThrow();
+    }
+}
@@ -0,0 +1,69 @@
+package com.habitscanner.benchmarks;
+
+import com.habitscanner.habitscanner.dto.ImportJobDTO;
+import com.habitscanner.habitscanner.model.HistoryFormat;
+import com.habitscanner.habitscanner.model.ImportStatus;
+import com.habitscanner.habitscanner.service.ImportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wall-clock time of one CSV history import into an in-memory H2 backend: 20 habits
+ * with one entry per day, {@code rows} rows in total. Each invocation imports for a
+ * fresh user, so every row is an insert.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx512m")
+@State(Scope.Benchmark)
+public class ImportBenchmark {
+
+    private static final int HABITS = 20;
+
+    @Param({"100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ImportService importService;
+    private byte[] csv;
+    private final AtomicInteger users = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        importService = context.getBean(ImportService.class);
+
+        StringBuilder file = new StringBuilder("habit,date,completed,notes\n");
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < rows; i++) {
+            file.append("Habit ").append(i % HABITS).append(',')
+                .append(today.minusDays(i / HABITS)).append(',')
+                .append(i % 3 != 0).append(",\n");
+        }
+        csv = file.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ImportJobDTO importCsv() {
+        String userId = "import-user-" + users.incrementAndGet();
+        Long jobId = importService.createJob(userId, HistoryFormat.CSV).getId();
+        ImportJobDTO job = importService.importHistory(userId, jobId, new ByteArrayInputStream(csv)).orElseThrow();
+        if (job.getStatus() != ImportStatus.COMPLETED) {
+            throw new IllegalStateException("Import failed: " + job.getError());
+        }
+        return job;
+    }
+}
@@ -0,0 +1,78 @@
+package com.habitscanner.benchmarks;
+
+import com.habitscanner.habitscanner.model.HabitEntry;
+import com.habitscanner.habitscanner.service.CompletionTimeline;
+import com.habitscanner.habitscanner.service.HabitStatisticsCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Streak math over a synthetic history: the full-scan loops that sort boxed
+ * {@link HabitEntry} objects against the word-level {@link CompletionTimeline}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreakBenchmark {
+
+    @Param({"1", "5", "10"})
+    public int years;
+
+    @Param({"0.3", "0.9"})
+    public double density;
+
+    private List<HabitEntry> entries;
+    private List<LocalDate> completedDates;
+    private CompletionTimeline timeline;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entries = SyntheticHistory.dailyEntries(null, years, density);
+        completedDates = entries.stream()
+                .filter(HabitEntry::getCompleted)
+                .map(HabitEntry::getDate)
+                .collect(Collectors.toList());
+        timeline = CompletionTimeline.of(completedDates);
+        today = LocalDate.now();
+    }
+
+    @Benchmark
+    public int fullScanCurrentStreak() {
+        // The service sorts the freshly loaded list in place, so give it a copy each time
+        return HabitStatisticsCalculator.calculateCurrentStreak(new ArrayList<>(entries), today);
+    }
+
+    @Benchmark
+    public int fullScanLongestStreak() {
+        return HabitStatisticsCalculator.calculateLongestStreak(new ArrayList<>(entries));
+    }
+
+    @Benchmark
+    public double fullScanCompletionRate() {
+        return HabitStatisticsCalculator.calculateCompletionRate(entries);
+    }
+
+    @Benchmark
+    public int timelineCurrentStreak() {
+        return timeline.streakEndingAt(today);
+    }
+
+    @Benchmark
+    public int timelineLongestStreak() {
+        return timeline.longestStreak();
+    }
+
+    @Benchmark
+    public CompletionTimeline timelineBuild() {
+        return CompletionTimeline.of(completedDates);
+    }
+}
@@ -0,0 +1,46 @@
+package com.habitscanner.benchmarks;
+
+import com.habitscanner.habitscanner.model.Habit;
+import com.habitscanner.habitscanner.model.HabitEntry;
+import com.habitscanner.habitscanner.model.HabitFrequency;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic daily check-in history ending today, for benchmarks.
+ */
+final class SyntheticHistory {
+
+    private SyntheticHistory() {}
+
+    /**
+     * A persisted-looking daily habit started {@code years} years ago.
+     */
+    static Habit habit(long id, int years) {
+        Habit habit = new Habit("Habit " + id, "Synthetic benchmark habit", "benchmark-user",
+                LocalDate.now().minusYears(years).plusDays(1), HabitFrequency.DAILY);
+        habit.setId(id);
+        return habit;
+    }
+
+    /**
+     * One entry per day for {@code years} years up to today, completed with
+     * probability {@code density}, in ascending date order as the database returns them.
+     */
+    static List<HabitEntry> dailyEntries(Habit habit, int years, double density) {
+        Random random = new Random(years * 31L + Double.hashCode(density));
+        LocalDate today = LocalDate.now();
+        LocalDate start = today.minusYears(years).plusDays(1);
+
+        List<HabitEntry> entries = new ArrayList<>();
+        for (LocalDate date = start; !date.isAfter(today); date = date.plusDays(1)) {
+            HabitEntry entry = new HabitEntry(habit, date, random.nextDouble() < density, null);
+            entry.setId((long) entries.size() + 1);
+            entries.add(entry);
+        }
+        return entries;
+    }
+}
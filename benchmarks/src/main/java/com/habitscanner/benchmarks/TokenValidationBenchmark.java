@@ -0,0 +1,138 @@
+package com.habitscanner.benchmarks;
+
+import com.habitscanner.habitscanner.service.GoogleIdTokenVerifier;
+import com.habitscanner.habitscanner.service.TokenInfoClient;
+import com.habitscanner.habitscanner.service.TokenIntrospection;
+import com.habitscanner.habitscanner.service.TokenValidationService;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-request authentication cost of the two token validation modes against local
+ * stand-ins for Google's tokeninfo and JWKS endpoints.
+ *
+ * <ul>
+ *   <li>{@code tokeninfoMiss}: a token not seen before, paying the tokeninfo round trip</li>
+ *   <li>{@code tokeninfoCached}: a token already in the introspection cache</li>
+ *   <li>{@code jwtLocal}: a signed ID token verified against the cached JWKS</li>
+ * </ul>
+ *
+ * {@code tokeninfoLatencyMillis} adds an artificial delay to the tokeninfo stub to
+ * approximate the real network round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenValidationBenchmark {
+
+    private static final String CLIENT_ID = "benchmark-client";
+
+    @Param({"0", "20"})
+    public int tokeninfoLatencyMillis;
+
+    private HttpServer server;
+    private TokenValidationService tokeninfoService;
+    private TokenValidationService jwtService;
+    private GoogleIdTokenVerifier verifier;
+    private String idToken;
+    private final AtomicLong tokenCounter = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        RSAKey signingKey = new RSAKeyGenerator(2048).keyID("benchmark-key").generate();
+        byte[] jwks = new JWKSet(signingKey.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        byte[] tokenInfo = ("{\"user_id\":\"1234567890\",\"email\":\"user@example.com\",\"expires_in\":3599}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/certs", exchange -> {
+            exchange.sendResponseHeaders(200, jwks.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(jwks);
+            }
+        });
+        server.createContext("/tokeninfo", exchange -> {
+            try {
+                Thread.sleep(tokeninfoLatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, tokenInfo.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(tokenInfo);
+            }
+        });
+        server.start();
+
+        String baseUri = "http://127.0.0.1:" + server.getAddress().getPort();
+        verifier = new GoogleIdTokenVerifier(baseUri + "/certs", CLIENT_ID, Duration.ofHours(1));
+        TokenInfoClient tokenInfoClient = new TokenInfoClient(baseUri + "/tokeninfo", Duration.ofSeconds(2), Duration.ofSeconds(3),
+                100, 5, Duration.ofSeconds(30), new SimpleMeterRegistry());
+        tokeninfoService = new TokenValidationService(10_000, Duration.ofMinutes(5), tokenInfoClient, Optional.empty());
+        jwtService = new TokenValidationService(10_000, Duration.ofMinutes(5), tokenInfoClient, Optional.of(verifier));
+
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer("https://accounts.google.com")
+                .audience(CLIENT_ID)
+                .subject("1234567890")
+                .claim("email", "user@example.com")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofHours(1))))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(signingKey));
+        idToken = jwt.serialize();
+
+        // Prime the cache and the key set
+        tokeninfoService.introspect("cached-access-token");
+        if (!jwtService.introspect(idToken).isValid()) {
+            throw new IllegalStateException("ID token rejected during setup");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        verifier.shutdown();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public TokenIntrospection tokeninfoMiss() {
+        return tokeninfoService.introspect("access-token-" + tokenCounter.incrementAndGet());
+    }
+
+    @Benchmark
+    public TokenIntrospection tokeninfoCached() {
+        return tokeninfoService.introspect("cached-access-token");
+    }
+
+    @Benchmark
+    public TokenIntrospection jwtLocal() {
+        return jwtService.introspect(idToken);
+    }
+}
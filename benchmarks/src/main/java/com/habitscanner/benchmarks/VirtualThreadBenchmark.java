@@ -0,0 +1,128 @@
+package com.habitscanner.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request throughput of GET /api/habits at high concurrency, on Tomcat's platform
+ * thread pool and on virtual threads ({@code spring.threads.virtual.enabled}).
+ *
+ * <p>Every request carries a token not seen before, so each one waits for a local
+ * tokeninfo stub that answers after {@code tokeninfoLatencyMillis}, then reads the
+ * habit list over JDBC. One operation is {@value #CONCURRENCY} requests in flight at
+ * once; the score is requests per second. The virtual mode needs a Java 21 runtime.
+ *
+ * <p>The platform pool caps throughput at {@code maxThreads * 1000 / tokeninfoLatencyMillis}
+ * requests per second; virtual threads are bounded by CPU and the connection pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+// The JDK keeps at most 5 idle connections per host by default; allow enough that
+// calls to the stub do not open a new connection each time
+@Fork(value = 1, jvmArgs = "-Dhttp.maxConnections=2000")
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+    private static final int CONCURRENCY = 1000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"50"})
+    public int tokeninfoLatencyMillis;
+
+    // Tomcat's platform pool size, unused with virtual threads. Lowering it models pool
+    // saturation on machines whose CPU would otherwise give out first.
+    @Param({"200"})
+    public int maxThreads;
+
+    private final AtomicLong tokens = new AtomicLong();
+    private HttpServer tokenInfoServer;
+    private ExecutorService tokenInfoExecutor;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI habitsUri;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need a Java 21 runtime, this is " + Runtime.version());
+        }
+
+        // Local stand-in for Google's tokeninfo endpoint, slow but with unbounded threads
+        tokenInfoExecutor = Executors.newCachedThreadPool();
+        tokenInfoServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CONCURRENCY);
+        tokenInfoServer.createContext("/tokeninfo", exchange -> {
+            try {
+                Thread.sleep(tokeninfoLatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"user_id\":\"load-user\",\"expires_in\":3600}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        tokenInfoServer.setExecutor(tokenInfoExecutor);
+        tokenInfoServer.start();
+
+        context = BenchmarkApplication.startServer(
+            "--spring.threads.virtual.enabled=" + virtualThreads,
+            "--server.tomcat.threads.max=" + maxThreads,
+            "--habitscanner.auth.tokeninfo-uri=http://127.0.0.1:" + tokenInfoServer.getAddress().getPort() + "/tokeninfo",
+            "--logging.level.com.habitscanner.habitscanner.config=ERROR"
+        );
+        habitsUri = URI.create("http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port") + "/api/habits");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        tokenInfoServer.stop(0);
+        tokenInfoExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public int concurrentRequests() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            HttpRequest request = HttpRequest.newBuilder(habitsUri)
+                    .header("Authorization", "Bearer load-token-" + tokens.incrementAndGet())
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != CONCURRENCY) {
+            throw new IllegalStateException((CONCURRENCY - ok) + " of " + CONCURRENCY + " requests failed");
+        }
+        return ok;
+    }
+}
@@ -19,11 +19,10 @@ import {
   TableRow,
 } from '@mui/material';
 import { useHabits } from '../contexts/HabitContext';
-import { habitEntryService } from '../services/habitService';
+import { statsService } from '../services/habitService';
 import TrendingUpIcon from '@mui/icons-material/TrendingUp';
 import CalendarTodayIcon from '@mui/icons-material/CalendarToday';
 import CheckCircleIcon from '@mui/icons-material/CheckCircle';
-import dayjs from 'dayjs';
 
 const StatisticsPage = () => {
   const { habits } = useHabits();
@@ -44,63 +43,8 @@ const StatisticsPage = () => {
     if (habits.length === 0) return;
 
     try {
-      const now = dayjs();
-      let startDate, endDate;
-
-      switch (selectedPeriod) {
-        case 'week':
-          startDate = now.startOf('week');
-          endDate = now.endOf('week');
-          break;
-        case 'month':
-          startDate = now.startOf('month');
-          endDate = now.endOf('month');
-          break;
-        case 'year':
-          startDate = now.startOf('year');
-          endDate = now.endOf('year');
-          break;
-        default:
-          startDate = now.startOf('week');
-          endDate = now.endOf('week');
-      }
-
-      const entries = await habitEntryService.getEntriesByDateRange(
-        startDate.format('YYYY-MM-DD'),
-        endDate.format('YYYY-MM-DD')
-      );
-
-      const completedEntries = entries.filter(entry => entry.completed).length;
-      const totalEntries = entries.length;
-      const completionRate = totalEntries > 0 ? (completedEntries / totalEntries) * 100 : 0;
-
-      // Calculate habit-specific statistics
-      const habitStats = habits.map(habit => {
-        const habitEntries = entries.filter(entry => entry.habitId === habit.id);
-        const habitCompleted = habitEntries.filter(entry => entry.completed).length;
-        const habitTotal = habitEntries.length;
-        const habitRate = habitTotal > 0 ? (habitCompleted / habitTotal) * 100 : 0;
-
-        return {
-          id: habit.id,
-          name: habit.name,
-          completed: habitCompleted,
-          total: habitTotal,
-          rate: habitRate,
-          currentStreak: habit.currentStreak || 0,
-          longestStreak: habit.longestStreak || 0,
-        };
-      });
-
-      const bestStreak = Math.max(...habits.map(h => h.longestStreak || 0), 0);
-
-      setStats({
-        totalEntries,
-        completedEntries,
-        completionRate,
-        bestStreak,
-        habitStats,
-      });
+      const data = await statsService.getStats(selectedPeriod);
+      setStats(data);
     } catch (error) {
       console.error('Error calculating statistics:', error);
     }
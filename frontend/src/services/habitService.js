@@ -36,10 +36,18 @@ export const habitService = {
   },
 };
 
+const toPage = (response) => ({
+  entries: response.data,
+  nextCursor: response.headers['x-next-cursor'] || null,
+});
+
 export const habitEntryService = {
-  async getEntriesByHabitId(habitId) {
-    const response = await axios.get(`/api/entries/habit/${habitId}`);
-    return response.data;
+  // Paged: resolves to { entries, nextCursor }; pass nextCursor back for the next page
+  async getEntriesByHabitId(habitId, cursor = null, limit = null) {
+    const response = await axios.get(`/api/entries/habit/${habitId}`, {
+      params: { cursor, limit },
+    });
+    return toPage(response);
   },
 
   async getEntriesByDate(date) {
@@ -47,9 +55,11 @@ export const habitEntryService = {
     return response.data;
   },
 
-  async getEntriesByDateRange(startDate, endDate) {
-    const response = await axios.get(`/api/entries/range?startDate=${startDate}&endDate=${endDate}`);
-    return response.data;
+  async getEntriesByDateRange(startDate, endDate, cursor = null, limit = null) {
+    const response = await axios.get('/api/entries/range', {
+      params: { startDate, endDate, cursor, limit },
+    });
+    return toPage(response);
   },
 
   async createOrUpdateEntry(habitId, entryData) {
@@ -67,3 +77,10 @@ export const habitEntryService = {
   },
 };
 
+
+export const statsService = {
+  async getStats(period) {
+    const response = await axios.get(`/api/stats?period=${period}`);
+    return response.data;
+  },
+};